@@ -0,0 +1,105 @@
+package taojava.analysis;
+
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+
+import taojava.util.SkipList;
+
+/**
+ * Measure how many bytes SkipList updates allocate.  Uses the
+ * HotSpot-specific per-thread allocation counter, so only works on
+ * JVMs that provide com.sun.management.ThreadMXBean.
+ *
+ * @author Albert Owusu-Asare
+ */
+public class AllocationAnalyzer
+{
+  /**
+   * The thread bean that counts allocations.
+   */
+  static com.sun.management.ThreadMXBean threads =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  /**
+   * Determine how many bytes the current thread has allocated so far.
+   */
+  static long allocated()
+  {
+    return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+  } // allocated()
+
+  /**
+   * Run each kind of update n times on sl, using the values in vals
+   * (boxed ahead of time, so that boxing is not counted), and report
+   * the bytes allocated per operation.
+   *
+   * @return data
+   *   An array containing the bytes per operation for 0: adding new
+   *   values; 1: adding values that are already there; 2: removing
+   *   values that are there; 3: removing values that are not; 4:
+   *   adding and removing in alternation.
+   */
+  public static double[] analyze(SkipList<Integer> sl, Integer[] vals)
+  {
+    int n = vals.length / 2;
+    double[] result = new double[5];
+    long start;
+
+    start = allocated();
+    for (int i = 0; i < n; i++)
+      sl.add(vals[2 * i]);
+    result[0] = (allocated() - start) / (double) n;
+
+    start = allocated();
+    for (int i = 0; i < n; i++)
+      sl.add(vals[2 * i]);
+    result[1] = (allocated() - start) / (double) n;
+
+    start = allocated();
+    for (int i = 0; i < n; i += 2)
+      sl.remove(vals[2 * i]);
+    result[2] = (allocated() - start) / (double) (n / 2);
+
+    start = allocated();
+    for (int i = 0; i < n; i++)
+      sl.remove(vals[2 * i + 1]);
+    result[3] = (allocated() - start) / (double) n;
+
+    start = allocated();
+    for (int i = 0; i < n; i += 2)
+      {
+        sl.add(vals[2 * i]);
+        sl.remove(vals[2 * i]);
+      } // for
+    result[4] = (allocated() - start) / (double) n;
+
+    return result;
+  } // analyze(SkipList<Integer>, Integer[])
+
+  public static void main(String[] args)
+  {
+    PrintWriter pen = new PrintWriter(System.out, true);
+    int n = 100000;
+    Integer[] vals = new Integer[2 * n];
+    for (int i = 0; i < vals.length; i++)
+      vals[i] = i;
+
+    pen.printf("%-16s%10s%10s%10s%10s%10s\n", "bytes/op", "add/new",
+               "add/dup", "rem/hit", "rem/miss", "churn");
+    for (int round = 0; round < 3; round++)
+      {
+        SkipList<Integer> plain = new SkipList<Integer>();
+        SkipList<Integer> recycling = new SkipList<Integer>();
+        recycling.setRecycling(64);
+        double[] results = analyze(plain, vals);
+        pen.printf("%-16s%10.1f%10.1f%10.1f%10.1f%10.1f\n", "plain",
+                   results[0], results[1], results[2], results[3],
+                   results[4]);
+        results = analyze(recycling, vals);
+        pen.printf("%-16s%10.1f%10.1f%10.1f%10.1f%10.1f\n", "recycling",
+                   results[0], results[1], results[2], results[3],
+                   results[4]);
+      } // for round
+    pen.close();
+  } // main(String[])
+} // AllocationAnalyzer
@@ -0,0 +1,101 @@
+package taojava.analysis;
+
+import java.io.PrintWriter;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import taojava.util.ConcurrentSkipList;
+import taojava.util.SkipList;
+import taojava.util.SortedList;
+import taojava.util.StampedSortedList;
+
+/**
+ * Measure how many operations per second a ConcurrentSkipList manages
+ * with one thread and with several, next to a SkipList wrapped in a
+ * StampedSortedList.  Every thread mixes lookups and updates of random
+ * values from one small range, so the threads keep running into each
+ * other.  Given as many cores as threads, the lock-free list should
+ * pull ahead as threads are added, and more so as the share of updates
+ * grows; on one core, the numbers only show the cost of each list.
+ *
+ * @author Albert Owusu-Asare
+ */
+public class ConcurrentSkipListAnalyzer
+{
+  /**
+   * The values the threads work on.
+   */
+  static final int RANGE = 1 << 16;
+
+  /**
+   * Make n operations on list from the given number of threads, of
+   * which the given percentage are updates (half adds, half removes)
+   * and the rest lookups, and report the operations per second.
+   */
+  public static double analyze(SortedList<Integer> list, int threads, int n,
+                               int updates)
+    throws Exception
+  {
+    Random random = new Random();
+    for (int i = 0; i < RANGE / 2; i++)
+      list.add(random.nextInt(RANGE));
+
+    Thread[] workers = new Thread[threads];
+    SimpleTimer timer = new SimpleTimer();
+    timer.start();
+    for (int t = 0; t < threads; t++)
+      {
+        workers[t] = new Thread(() -> {
+          Random mine = new Random();
+          for (int i = 0; i < n / threads; i++)
+            {
+              int val = mine.nextInt(RANGE);
+              int op = mine.nextInt(100);
+              if (op < updates / 2)
+                list.add(val);
+              else if (op < updates)
+                list.remove(val);
+              else
+                list.contains(val);
+            } // for i
+        });
+        workers[t].start();
+      } // for t
+    for (Thread worker : workers)
+      worker.join();
+    timer.stop();
+    return n * 1000.0 / Math.max(1, timer.elapsed());
+  } // analyze(SortedList<Integer>, int, int, int)
+
+  public static void main(String[] args)
+    throws Exception
+  {
+    PrintWriter pen = new PrintWriter(System.out, true);
+    String[] names = { "Concurrent", "Stamped" };
+    @SuppressWarnings("unchecked")
+    Supplier<SortedList<Integer>>[] lists = new Supplier[] {
+        () -> new ConcurrentSkipList<Integer>(),
+        () -> new StampedSortedList<Integer>(new SkipList<Integer>()) };
+    int[] mixes = { 10, 50 };
+    int[] threads = { 1, 4, 16 };
+    int n = 2000000;
+
+    // Warm up, so that the first row does not pay for compilation
+    for (Supplier<SortedList<Integer>> list : lists)
+      analyze(list.get(), 4, n, 50);
+
+    pen.printf("%-20s", "ops/sec");
+    for (int t : threads)
+      pen.printf("%12s", t + " thr");
+    pen.println();
+    for (int mix : mixes)
+      for (int l = 0; l < lists.length; l++)
+        {
+          pen.printf("%-20s", names[l] + " " + mix + "% upd");
+          for (int t : threads)
+            pen.printf("%12.0f", analyze(lists[l].get(), t, n, mix));
+          pen.println();
+        } // for l
+    pen.close();
+  } // main(String[])
+} // ConcurrentSkipListAnalyzer
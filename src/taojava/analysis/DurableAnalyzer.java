@@ -0,0 +1,91 @@
+package taojava.analysis;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import taojava.util.DurableSortedList;
+import taojava.util.KeyCodec;
+import taojava.util.SyncPolicy;
+
+/**
+ * Measure how many updates per second a DurableSortedList manages under
+ * each sync policy, with one thread and with several.  With more
+ * threads, SyncPolicy.EVERY_OP should gain from group commit.
+ *
+ * @author Albert Owusu-Asare
+ */
+public class DurableAnalyzer
+{
+  /**
+   * Add n values to a fresh list in dir from the given number of
+   * threads, and report the updates per second.
+   */
+  public static double analyze(Path dir, SyncPolicy policy, int threads,
+                               int n)
+    throws Exception
+  {
+    final DurableSortedList<Long> longs =
+        DurableSortedList.open(dir, KeyCodec.LONGS, policy);
+    Thread[] workers = new Thread[threads];
+    SimpleTimer timer = new SimpleTimer();
+    timer.start();
+    for (int t = 0; t < threads; t++)
+      {
+        final long first = t;
+        workers[t] = new Thread(() -> {
+          for (long val = first; val < n; val += threads)
+            longs.add(val);
+        });
+        workers[t].start();
+      } // for t
+    for (Thread worker : workers)
+      worker.join();
+    longs.close();
+    timer.stop();
+    return n * 1000.0 / Math.max(1, timer.elapsed());
+  } // analyze(Path, SyncPolicy, int, int)
+
+  /**
+   * Delete the files of a list.
+   */
+  static void clear(Path dir)
+    throws IOException
+  {
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(dir))
+      {
+        for (Path file : files)
+          Files.delete(file);
+      } // try
+  } // clear(Path)
+
+  public static void main(String[] args)
+    throws Exception
+  {
+    PrintWriter pen = new PrintWriter(System.out, true);
+    SyncPolicy[] policies = { SyncPolicy.EVERY_OP, SyncPolicy.interval(10),
+                             SyncPolicy.NONE };
+    int[] counts = { 2000, 200000, 200000 };
+    int[] threads = { 1, 4, 16 };
+    Path dir = Files.createTempDirectory("durable");
+
+    pen.printf("%-14s", "ops/sec");
+    for (int t : threads)
+      pen.printf("%12s", t + " thr");
+    pen.println();
+    for (int p = 0; p < policies.length; p++)
+      {
+        pen.printf("%-14s", policies[p]);
+        for (int t : threads)
+          {
+            pen.printf("%12.0f", analyze(dir, policies[p], t, counts[p]));
+            clear(dir);
+          } // for t
+        pen.println();
+      } // for p
+    Files.delete(dir);
+    pen.close();
+  } // main(String[])
+} // DurableAnalyzer
@@ -0,0 +1,82 @@
+package taojava.analysis;
+
+import java.io.PrintWriter;
+
+import taojava.util.ArraySkipList;
+import taojava.util.SkipList;
+import taojava.util.SortedList;
+
+/**
+ * Compare how much heap SkipList and ArraySkipList need per element.
+ * The values are boxed before we start measuring, so only the memory
+ * that the lists themselves use is counted.
+ *
+ * The ten-million element lists need a big heap; run with something
+ * like -Xmx6g.  Sizes may also be given on the command line.
+ *
+ * @author Albert Owusu-Asare
+ */
+public class FootprintAnalyzer
+{
+  /**
+   * Determine how much of the heap is in use, after collecting as much
+   * garbage as we can.
+   */
+  static long used()
+  {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 4; i++)
+      {
+        System.gc();
+        try
+          {
+            Thread.sleep(50);
+          } // try
+        catch (InterruptedException e)
+          {
+            Thread.currentThread().interrupt();
+          } // catch
+      } // for
+    return runtime.totalMemory() - runtime.freeMemory();
+  } // used()
+
+  /**
+   * Add all of vals to slist and report how many bytes of heap the list
+   * uses per element.
+   */
+  public static double analyze(SortedList<Integer> slist, Integer[] vals)
+  {
+    long before = used();
+    for (Integer val : vals)
+      slist.add(val);
+    long after = used();
+    if (slist.length() != vals.length)
+      throw new IllegalStateException("Lost some values");
+    return (after - before) / (double) vals.length;
+  } // analyze(SortedList<Integer>, Integer[])
+
+  public static void main(String[] args)
+  {
+    PrintWriter pen = new PrintWriter(System.out, true);
+    int[] sizes = { 1000000, 10000000 };
+    if (args.length > 0)
+      {
+        sizes = new int[args.length];
+        for (int i = 0; i < args.length; i++)
+          sizes[i] = Integer.parseInt(args[i]);
+      } // if sizes were given
+
+    pen.printf("%-12s%16s%16s\n", "bytes/elt", "SkipList", "ArraySkipList");
+    for (int n : sizes)
+      {
+        Integer[] vals = new Integer[n];
+        for (int i = 0; i < n; i++)
+          vals[i] = i;
+
+        double nodes = analyze(new SkipList<Integer>(), vals);
+        double arrays = analyze(new ArraySkipList<Integer>(), vals);
+        pen.printf("%-12d%16.1f%16.1f\n", n, nodes, arrays);
+      } // for n
+    pen.close();
+  } // main(String[])
+} // FootprintAnalyzer
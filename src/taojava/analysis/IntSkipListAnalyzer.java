@@ -0,0 +1,223 @@
+package taojava.analysis;
+
+import java.io.PrintWriter;
+
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import taojava.util.IntSkipList;
+import taojava.util.LongSkipList;
+import taojava.util.SkipList;
+
+/**
+ * Compare IntSkipLists and LongSkipLists with SkipList<Integer>, using
+ * the same steps as SortedListAnalyzer.
+ *
+ * @author Albert Owusu-Asare
+ */
+public class IntSkipListAnalyzer
+{
+  /**
+   * Run the steps of SortedListAnalyzer.analyze on an IntSkipList,
+   * without boxing any values.
+   *
+   * @return data
+   *   An array laid out like the one from SortedListAnalyzer.analyze.
+   */
+  public static long[] analyze(IntSkipList sl, int n)
+  {
+    Random random = new Random();
+
+    SimpleTimer overall = new SimpleTimer();
+    SimpleTimer adds1 = new SimpleTimer();
+    SimpleTimer indices = new SimpleTimer();
+    SimpleTimer iterate = new SimpleTimer();
+    SimpleTimer adds2 = new SimpleTimer();
+    SimpleTimer removes1 = new SimpleTimer();
+    SimpleTimer removes2 = new SimpleTimer();
+
+    overall.start();
+
+    // First set of additions (all even)
+    adds1.start();
+    for (int i = 0; i < n; i++)
+      {
+        sl.add(2 * random.nextInt(4 * n));
+      } // for
+    adds1.stop();
+
+    int len = sl.length();
+
+    // Index
+    indices.start();
+    for (int i = 0; i < n; i++)
+      {
+        sl.get(random.nextInt(len));
+      } // for
+    indices.stop();
+
+    // Iterate
+    iterate.start();
+    PrimitiveIterator.OfInt it = sl.iterator();
+    while (it.hasNext())
+      it.nextInt();
+    iterate.stop();
+
+    // Second set of additions (all odd)
+    adds2.start();
+    for (int i = 0; i < n; i++)
+      {
+        sl.add(1 + 2 * random.nextInt(4 * n));
+      } // for
+    adds2.stop();
+
+    // First set of removals (all even)
+    removes1.start();
+    it = sl.iterator();
+    while (it.hasNext())
+      {
+        if (it.nextInt() % 2 == 0)
+          it.remove();
+      } // while (it.hasNext())
+    removes1.stop();
+
+    // Second set of removals
+    removes2.start();
+    it = sl.iterator();
+    while (it.hasNext())
+      {
+        it.nextInt();
+        it.remove();
+      } // while (it.hasNext();
+    removes2.stop();
+
+    overall.stop();
+    return new long[] { overall.elapsed(), adds1.elapsed(), indices.elapsed(),
+                       iterate.elapsed(), adds2.elapsed(), removes1.elapsed(),
+                       removes2.elapsed() };
+  } // analyze(IntSkipList, int)
+
+  /**
+   * Run the steps of SortedListAnalyzer.analyze on a LongSkipList,
+   * without boxing any values.
+   *
+   * @return data
+   *   An array laid out like the one from SortedListAnalyzer.analyze.
+   */
+  public static long[] analyze(LongSkipList sl, int n)
+  {
+    Random random = new Random();
+
+    SimpleTimer overall = new SimpleTimer();
+    SimpleTimer adds1 = new SimpleTimer();
+    SimpleTimer indices = new SimpleTimer();
+    SimpleTimer iterate = new SimpleTimer();
+    SimpleTimer adds2 = new SimpleTimer();
+    SimpleTimer removes1 = new SimpleTimer();
+    SimpleTimer removes2 = new SimpleTimer();
+
+    overall.start();
+
+    // First set of additions (all even)
+    adds1.start();
+    for (int i = 0; i < n; i++)
+      {
+        sl.add(2L * random.nextInt(4 * n));
+      } // for
+    adds1.stop();
+
+    int len = sl.length();
+
+    // Index
+    indices.start();
+    for (int i = 0; i < n; i++)
+      {
+        sl.get(random.nextInt(len));
+      } // for
+    indices.stop();
+
+    // Iterate
+    iterate.start();
+    PrimitiveIterator.OfLong it = sl.iterator();
+    while (it.hasNext())
+      it.nextLong();
+    iterate.stop();
+
+    // Second set of additions (all odd)
+    adds2.start();
+    for (int i = 0; i < n; i++)
+      {
+        sl.add(1 + 2L * random.nextInt(4 * n));
+      } // for
+    adds2.stop();
+
+    // First set of removals (all even)
+    removes1.start();
+    it = sl.iterator();
+    while (it.hasNext())
+      {
+        if (it.nextLong() % 2 == 0)
+          it.remove();
+      } // while (it.hasNext())
+    removes1.stop();
+
+    // Second set of removals
+    removes2.start();
+    it = sl.iterator();
+    while (it.hasNext())
+      {
+        it.nextLong();
+        it.remove();
+      } // while (it.hasNext();
+    removes2.stop();
+
+    overall.stop();
+    return new long[] { overall.elapsed(), adds1.elapsed(), indices.elapsed(),
+                       iterate.elapsed(), adds2.elapsed(), removes1.elapsed(),
+                       removes2.elapsed() };
+  } // analyze(LongSkipList, int)
+
+  /**
+   * Run an analysis reps times, and print the times of each round and
+   * their averages, laid out like SortedListAnalyzer's report.
+   */
+  static void report(PrintWriter pen, String name, Supplier<long[]> analysis,
+                     int reps)
+  {
+    pen.println(name);
+    pen.printf("         %8s%8s%8s%8s%8s%8s%8s\n", "add/1", "index", "iterate",
+               "add/2", "rem/1", "rem/2", "total");
+    long[] results = new long[7];
+    for (int rep = 0; rep < reps; rep++)
+      {
+        long[] round = analysis.get();
+        for (int i = 0; i < results.length; i++)
+          results[i] += round[i];
+        pen.printf("Round %2d %8d%8d%8d%8d%8d%8d%8d\n", rep, round[1], round[2],
+                   round[3], round[4], round[5], round[6], round[0]);
+      } // for (i)
+    pen.printf("Average  %8d%8d%8d%8d%8d%8d%8d\n", results[1] / reps,
+               results[2] / reps, results[3] / reps, results[4] / reps,
+               results[5] / reps, results[6] / reps, results[0] / reps);
+  } // report(PrintWriter, String, Supplier<long[]>, int)
+
+  public static void main(String[] args)
+  {
+    PrintWriter pen = new PrintWriter(System.out, true);
+    int n = 32000;
+    int reps = 20;
+
+    pen.println("SkipList<Integer>");
+    SortedListAnalyzer.analyze(pen, new SkipList<Integer>(), n, reps);
+
+    pen.println();
+    IntSkipList ints = new IntSkipList();
+    report(pen, "IntSkipList", () -> analyze(ints, n), reps);
+
+    pen.println();
+    LongSkipList longs = new LongSkipList();
+    report(pen, "LongSkipList", () -> analyze(longs, n), reps);
+    pen.close();
+  } // main(String[])
+} // IntSkipListAnalyzer
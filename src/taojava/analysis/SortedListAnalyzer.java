@@ -56,12 +56,10 @@ public class SortedListAnalyzer
 
     // Index
     indices.start();
-    /*
     for (int i = 0; i < n; i++)
       {
         sl.get(random.nextInt(len));
       } // for
-      */
     indices.stop();
 
     // Iterate
@@ -86,7 +84,7 @@ public class SortedListAnalyzer
         if (it.next() % 2 == 0)
           it.remove();
       } // while (it.hasNext())
-    removes2.stop();
+    removes1.stop();
 
     // Second set of removals
     removes2.start();
@@ -3,6 +3,7 @@ package taojava.expt;
 import java.io.PrintWriter;
 
 import java.util.Iterator;
+import java.util.function.Predicate;
 
 import taojava.util.SortedList;
 
@@ -136,6 +137,24 @@ public class VerboseSortedList<T extends Comparable<T>>
     return length;
   } // length()
 
+  // +-------------------------+-----------------------------------------
+  // | Methods from SortedList |
+  // +-------------------------+
+
+  public int rank(T val)
+  {
+    int result = slist.rank(val);
+    pen.println(name + ".rank(" + val + ") -> " + result);
+    return result;
+  } // rank(T)
+
+  public boolean removeIf(Predicate<? super T> filter)
+  {
+    boolean result = slist.removeIf(filter);
+    pen.println(name + ".removeIf(" + filter + ") -> " + result);
+    return result;
+  } // removeIf(Predicate<? super T>)
+
   // +---------------+---------------------------------------------------
   // | Other Methods |
   // +---------------+
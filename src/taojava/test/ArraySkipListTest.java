@@ -0,0 +1,60 @@
+package taojava.test;
+
+import static org.junit.Assert.*;
+
+import java.util.TreeSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import taojava.util.ArraySkipList;
+
+/**
+ * Tests of array-backed skip lists.
+ *
+ * @author Albert Owusu-Asare
+ */
+public class ArraySkipListTest
+extends SortedListTest
+{
+  @Before
+  public void setup()
+  {
+    this.ints = new ArraySkipList<Integer>();
+    this.strings = new ArraySkipList<String>();
+    this.duplicationAllowed = false;
+  } // setup
+
+  /**
+   * Add and remove values over and over, so that removed nodes get
+   * reused, and make sure that the list still agrees with a TreeSet.
+   */
+  @Test
+  public void reuseTest()
+  {
+    TreeSet<Integer> expected = new TreeSet<Integer>();
+    for (int round = 0; round < 20; round++)
+      {
+        for (int i = 0; i < 200; i++)
+          {
+            int val = random.nextInt(500);
+            ints.add(val);
+            expected.add(val);
+          } // for i
+        for (int i = 0; i < 200; i++)
+          {
+            int val = random.nextInt(500);
+            ints.remove(val);
+            expected.remove(val);
+          } // for i
+        assertEquals(expected.size(), ints.length());
+        int i = 0;
+        for (Integer val : expected)
+          {
+            assertEquals(val, ints.get(i));
+            assertEquals(i, ints.rank(val));
+            i++;
+          } // for val
+      } // for round
+  } // reuseTest()
+} // ArraySkipListTest
@@ -0,0 +1,88 @@
+package taojava.test;
+
+import static org.junit.Assert.*;
+
+import java.util.Iterator;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import taojava.util.ConcurrentSkipList;
+
+/**
+ * Tests of concurrent skip lists.
+ *
+ * @author Albert Owusu-Asare
+ */
+public class ConcurrentSkipListTest
+extends SortedListTest
+{
+  @Before
+  public void setup()
+  {
+    this.ints = new ConcurrentSkipList<Integer>();
+    this.strings = new ConcurrentSkipList<String>();
+    this.duplicationAllowed = false;
+  } // setup
+
+  /**
+   * Concurrent iterators are weakly consistent rather than fail-fast,
+   * so a stale iterator may still remove the value it last returned,
+   * but calling remove before next is an error.
+   */
+  @Override
+  @Test(expected = IllegalStateException.class)
+  public void iteratorSemanticsTest()
+  {
+    ints.add(1);
+    ints.add(2);
+    ints.add(3);
+
+    Iterator<Integer> iterator = ints.iterator();
+    Iterator<Integer> evilIter = ints.iterator();
+    iterator.next();
+    iterator.remove();
+    assertFalse(ints.contains(1));
+    // The stale iterator keeps going without complaint
+    assertTrue(evilIter.hasNext());
+    evilIter.remove();
+  } // iteratorSemanticsTest()
+
+  /**
+   * Have several threads add and remove interleaved values at the same
+   * time, and make sure that exactly the right values survive.
+   */
+  @Test
+  public void concurrentAddRemoveTest()
+    throws InterruptedException
+  {
+    final int THREADS = 4;
+    final int PER_THREAD = 2000;
+    Thread[] threads = new Thread[THREADS];
+    for (int t = 0; t < THREADS; t++)
+      {
+        final int offset = t;
+        threads[t] = new Thread()
+          {
+            public void run()
+            {
+              // Each thread owns the values congruent to offset
+              for (int i = 0; i < PER_THREAD; i++)
+                ints.add(i * THREADS + offset);
+              // and then removes the odd multiples
+              for (int i = 1; i < PER_THREAD; i += 2)
+                ints.remove(i * THREADS + offset);
+            } // run()
+          }; // new Thread()
+        threads[t].start();
+      } // for t
+    for (Thread thread : threads)
+      thread.join();
+
+    assertEquals(THREADS * PER_THREAD / 2, ints.length());
+    assertTrue(inOrder(ints.iterator()));
+    for (int i = 0; i < PER_THREAD; i++)
+      for (int t = 0; t < THREADS; t++)
+        assertEquals(i % 2 == 0, ints.contains(i * THREADS + t));
+  } // concurrentAddRemoveTest()
+} // ConcurrentSkipListTest
@@ -0,0 +1,219 @@
+package taojava.test;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import taojava.util.DurableSortedList;
+import taojava.util.KeyCodec;
+import taojava.util.SyncPolicy;
+
+/**
+ * Tests of durable sorted lists.
+ *
+ * @author Albert Owusu-Asare
+ */
+public class DurableSortedListTest
+{
+  /**
+   * A random number generator for the randomized tests.
+   */
+  Random random = new Random();
+
+  /**
+   * The directory that holds the list.
+   */
+  Path dir;
+
+  @Before
+  public void setup()
+    throws IOException
+  {
+    this.dir = Files.createTempDirectory("durable");
+  } // setup()
+
+  @After
+  public void cleanup()
+    throws IOException
+  {
+    for (Path file : Files.newDirectoryStream(this.dir))
+      Files.delete(file);
+    Files.delete(this.dir);
+  } // cleanup()
+
+  /**
+   * Make sure that the list holds exactly the values in expected.
+   */
+  static void assertMatches(TreeSet<Long> expected,
+                            DurableSortedList<Long> longs)
+  {
+    assertEquals(expected.size(), longs.length());
+    Iterator<Long> it = longs.iterator();
+    for (Long val : expected)
+      assertEquals(val, it.next());
+    assertFalse(it.hasNext());
+  } // assertMatches(TreeSet<Long>, DurableSortedList<Long>)
+
+  /**
+   * Make random updates to longs and expected.
+   */
+  void update(TreeSet<Long> expected, DurableSortedList<Long> longs, int n)
+  {
+    for (int i = 0; i < n; i++)
+      {
+        long val = random.nextInt(1000);
+        if (random.nextInt(3) > 0)
+          {
+            longs.add(val);
+            expected.add(val);
+          } // if we add
+        else
+          {
+            longs.remove(val);
+            expected.remove(val);
+          } // else we remove
+      } // for i
+  } // update(TreeSet<Long>, DurableSortedList<Long>, int)
+
+  /**
+   * Abandon a list without closing it, as a crash would, and make sure
+   * that reopening it recovers every update.
+   */
+  @Test
+  public void recoveryTest()
+    throws IOException
+  {
+    TreeSet<Long> expected = new TreeSet<Long>();
+    DurableSortedList<Long> longs =
+        DurableSortedList.open(this.dir, KeyCodec.LONGS, SyncPolicy.EVERY_OP);
+    update(expected, longs, 500);
+    assertMatches(expected, longs);
+
+    // "Crash", then recover, checkpoint, and update some more
+    longs = DurableSortedList.open(this.dir, KeyCodec.LONGS,
+                                   SyncPolicy.EVERY_OP);
+    assertMatches(expected, longs);
+    longs.checkpoint();
+    assertEquals(0, Files.size(this.dir.resolve("log")));
+    update(expected, longs, 500);
+    Iterator<Long> it = longs.iterator();
+    while (it.hasNext())
+      if (it.next() % 3 == 0)
+        it.remove();
+    expected.removeIf((val) -> val % 3 == 0);
+    for (int i = 0; i < 10; i++)
+      assertEquals(expected.pollFirst(), longs.pollFirst());
+
+    longs = DurableSortedList.open(this.dir, KeyCodec.LONGS,
+                                   SyncPolicy.EVERY_OP);
+    assertMatches(expected, longs);
+    longs.close();
+  } // recoveryTest()
+
+  /**
+   * Make sure that a partly written record at the end of the log is
+   * ignored and cut off.
+   */
+  @Test
+  public void tornLogTest()
+    throws IOException
+  {
+    TreeSet<Long> expected = new TreeSet<Long>();
+    DurableSortedList<Long> longs =
+        DurableSortedList.open(this.dir, KeyCodec.LONGS, SyncPolicy.NONE);
+    update(expected, longs, 300);
+    longs.close();
+
+    Path log = this.dir.resolve("log");
+    long size = Files.size(log);
+    try (FileChannel channel =
+        FileChannel.open(log, StandardOpenOption.APPEND))
+      {
+        channel.write(ByteBuffer.wrap(new byte[] { 1, 2, 3, 4, 5, 6, 7 }));
+      } // try
+
+    longs = DurableSortedList.open(this.dir, KeyCodec.LONGS,
+                                   SyncPolicy.interval(5));
+    assertMatches(expected, longs);
+    assertEquals(size, Files.size(log));
+    longs.close();
+  } // tornLogTest()
+
+  /**
+   * Close lists while the background syncer is busy, and make sure that
+   * closing still writes every update.
+   */
+  @Test
+  public void closeTest()
+    throws IOException
+  {
+    TreeSet<Long> expected = new TreeSet<Long>();
+    for (int round = 0; round < 20; round++)
+      {
+        DurableSortedList<Long> longs =
+            DurableSortedList.open(this.dir, KeyCodec.LONGS,
+                                   SyncPolicy.interval(1));
+        assertMatches(expected, longs);
+        update(expected, longs, 300);
+        longs.close();
+        longs.close();
+        try
+          {
+            longs.add(1L);
+            fail("add after close");
+          } // try
+        catch (IllegalStateException e)
+          {
+            // Expected
+          } // catch
+      } // for round
+    DurableSortedList<Long> longs =
+        DurableSortedList.open(this.dir, KeyCodec.LONGS, SyncPolicy.NONE);
+    assertMatches(expected, longs);
+    longs.close();
+  } // closeTest()
+
+  /**
+   * Update the list from several threads at once, and make sure that
+   * every update made it to the log.
+   */
+  @Test
+  public void groupCommitTest()
+    throws Exception
+  {
+    final DurableSortedList<Long> longs =
+        DurableSortedList.open(this.dir, KeyCodec.LONGS, SyncPolicy.EVERY_OP);
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++)
+      {
+        final long first = t;
+        threads[t] = new Thread(() -> {
+          for (long val = first; val < 400; val += threads.length)
+            longs.add(val);
+        });
+        threads[t].start();
+      } // for t
+    for (Thread thread : threads)
+      thread.join();
+
+    TreeSet<Long> expected = new TreeSet<Long>();
+    for (long val = 0; val < 400; val++)
+      expected.add(val);
+    DurableSortedList<Long> recovered =
+        DurableSortedList.open(this.dir, KeyCodec.LONGS, SyncPolicy.EVERY_OP);
+    assertMatches(expected, recovered);
+    recovered.close();
+  } // groupCommitTest()
+} // DurableSortedListTest
@@ -0,0 +1,155 @@
+package taojava.test;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import taojava.util.KeyCodec;
+import taojava.util.LsmSortedList;
+
+/**
+ * Tests of log-structured merge tree lists.
+ *
+ * @author Albert Owusu-Asare
+ */
+public class LsmSortedListTest
+{
+  /**
+   * A random number generator for the randomized tests.
+   */
+  Random random = new Random();
+
+  /**
+   * The directory that holds the runs.
+   */
+  Path dir;
+
+  @Before
+  public void setup()
+    throws IOException
+  {
+    this.dir = Files.createTempDirectory("lsm");
+  } // setup()
+
+  @After
+  public void cleanup()
+    throws IOException
+  {
+    for (Path file : Files.newDirectoryStream(this.dir))
+      Files.delete(file);
+    Files.delete(this.dir);
+  } // cleanup()
+
+  /**
+   * Make sure that the list holds exactly the values in expected.
+   */
+  static void assertMatches(TreeSet<Integer> expected,
+                            LsmSortedList<Integer> ints)
+  {
+    Iterator<Integer> it = ints.iterator();
+    for (Integer val : expected)
+      {
+        assertEquals(val, it.next());
+        assertTrue(ints.contains(val));
+        assertEquals(expected.contains(val + 1), ints.contains(val + 1));
+      } // for val
+    assertFalse(it.hasNext());
+    assertEquals(expected.size(), ints.length());
+  } // assertMatches(TreeSet<Integer>, LsmSortedList<Integer>)
+
+  /**
+   * Make enough random updates to fill many memtables, so that we flush
+   * and compact as we go, and reopen the list to make sure that the runs
+   * hold everything.
+   */
+  @Test
+  public void randomTest()
+    throws IOException
+  {
+    TreeSet<Integer> expected = new TreeSet<Integer>();
+    LsmSortedList<Integer> ints =
+        LsmSortedList.open(this.dir, KeyCodec.INTEGERS, 50, 3);
+    for (int i = 0; i < 3000; i++)
+      {
+        int val = random.nextInt(500);
+        if (random.nextInt(3) > 0)
+          {
+            ints.add(val);
+            expected.add(val);
+          } // if we add
+        else
+          {
+            ints.remove(val);
+            expected.remove(val);
+          } // else we remove
+        if (i % 500 == 0)
+          assertMatches(expected, ints);
+      } // for i
+    ints.flush();
+    assertTrue(ints.runs() <= 3);
+    assertMatches(expected, ints);
+    assertEquals(expected.first(), ints.get(0));
+    ints.close();
+
+    ints = LsmSortedList.open(this.dir, KeyCodec.INTEGERS, 50, 3);
+    assertMatches(expected, ints);
+
+    // Remove the even values through an iterator
+    Iterator<Integer> it = ints.iterator();
+    while (it.hasNext())
+      if (it.next() % 2 == 0)
+        it.remove();
+    expected.removeIf((val) -> val % 2 == 0);
+    assertMatches(expected, ints);
+    ints.close();
+  } // randomTest()
+
+  /**
+   * Close the list while another thread adds to it.  Every add that
+   * returns must survive the close, and every later add must fail.
+   */
+  @Test
+  public void closeTest()
+    throws Exception
+  {
+    final LsmSortedList<Integer> ints =
+        LsmSortedList.open(this.dir, KeyCodec.INTEGERS, 50, 3);
+    final AtomicInteger added = new AtomicInteger();
+    Thread writer = new Thread(() ->
+      {
+        try
+          {
+            for (int i = 0;; i++)
+              {
+                ints.add(i);
+                added.set(i + 1);
+              } // for i
+          } // try
+        catch (IllegalStateException e)
+          {
+            // The list is closed
+          } // catch
+      });
+    writer.start();
+    while (added.get() < 1000)
+      Thread.yield();
+    ints.close();
+    writer.join();
+
+    LsmSortedList<Integer> reopened =
+        LsmSortedList.open(this.dir, KeyCodec.INTEGERS, 50, 3);
+    for (int i = 0; i < added.get(); i++)
+      assertTrue(reopened.contains(i));
+    reopened.close();
+  } // closeTest()
+} // LsmSortedListTest
@@ -0,0 +1,162 @@
+package taojava.test;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import taojava.util.KeyCodec;
+import taojava.util.MappedSortedList;
+import taojava.util.SkipList;
+import taojava.util.SkipListSnapshot;
+
+/**
+ * Tests of snapshots and the lists that read them.
+ *
+ * @author Albert Owusu-Asare
+ */
+public class MappedSortedListTest
+{
+  /**
+   * A random number generator for the randomized tests.
+   */
+  Random random = new Random();
+
+  /**
+   * The directory that holds the snapshots.
+   */
+  Path dir;
+
+  @Before
+  public void setup()
+    throws IOException
+  {
+    this.dir = Files.createTempDirectory("snapshots");
+  } // setup()
+
+  @After
+  public void cleanup()
+    throws IOException
+  {
+    for (Path file : Files.newDirectoryStream(this.dir))
+      Files.delete(file);
+    Files.delete(this.dir);
+  } // cleanup()
+
+  /**
+   * Make sure that the list matches expected in every way we can ask.
+   */
+  static void assertMatches(TreeSet<Integer> expected,
+                            MappedSortedList<Integer> ints)
+  {
+    assertEquals(expected.size(), ints.length());
+    Iterator<Integer> it = ints.iterator();
+    int i = 0;
+    for (Integer val : expected)
+      {
+        assertEquals(val, it.next());
+        assertEquals(val, ints.get(i));
+        assertEquals(i, ints.rank(val));
+        assertTrue(ints.contains(val));
+        assertEquals(expected.contains(val + 1), ints.contains(val + 1));
+        i++;
+      } // for val
+    assertFalse(it.hasNext());
+  } // assertMatches(TreeSet<Integer>, MappedSortedList<Integer>)
+
+  /**
+   * Write a list, read it back, update it, and write and read it again.
+   */
+  @Test
+  public void roundTripTest()
+    throws IOException
+  {
+    Path file = this.dir.resolve("ints.snap");
+    SkipList<Integer> slist = new SkipList<Integer>();
+    TreeSet<Integer> expected = new TreeSet<Integer>();
+    for (int i = 0; i < 1000; i++)
+      {
+        int val = random.nextInt(5000);
+        slist.add(val);
+        expected.add(val);
+      } // for i
+    assertEquals(expected.size(),
+                 SkipListSnapshot.write(slist, KeyCodec.INTEGERS, file));
+
+    try (MappedSortedList<Integer> ints =
+        SkipListSnapshot.open(file, KeyCodec.INTEGERS))
+      {
+        assertMatches(expected, ints);
+        for (int i = 0; i < 1000; i++)
+          {
+            int val = random.nextInt(5000);
+            if (random.nextBoolean())
+              {
+                ints.add(val);
+                expected.add(val);
+              } // if we add
+            else
+              {
+                ints.remove(val);
+                expected.remove(val);
+              } // else we remove
+          } // for i
+        assertMatches(expected, ints);
+
+        // Remove the odd values through the iterator
+        Iterator<Integer> it = ints.iterator();
+        while (it.hasNext())
+          if (it.next() % 2 == 1)
+            it.remove();
+        expected.removeIf((val) -> val % 2 == 1);
+        assertMatches(expected, ints);
+
+        // Replace the snapshot while it is still open
+        SkipListSnapshot.write(ints, KeyCodec.INTEGERS, file);
+      } // try
+
+    try (MappedSortedList<Integer> ints =
+        SkipListSnapshot.open(file, KeyCodec.INTEGERS))
+      {
+        assertMatches(expected, ints);
+      } // try
+  } // roundTripTest()
+
+  /**
+   * Make sure that we notice snapshots of the wrong kind of value.
+   */
+  @Test(expected = IOException.class)
+  public void wrongCodecTest()
+    throws IOException
+  {
+    Path file = this.dir.resolve("longs.snap");
+    SkipList<Long> slist = new SkipList<Long>();
+    slist.add(1L);
+    SkipListSnapshot.write(slist, KeyCodec.LONGS, file);
+    SkipListSnapshot.open(file, KeyCodec.INTEGERS);
+  } // wrongCodecTest()
+
+  /**
+   * Make sure that a closed list cannot be used.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void closeTest()
+    throws IOException
+  {
+    Path file = this.dir.resolve("empty.snap");
+    SkipListSnapshot.write(new SkipList<Integer>(), KeyCodec.INTEGERS, file);
+    MappedSortedList<Integer> ints =
+        SkipListSnapshot.open(file, KeyCodec.INTEGERS);
+    assertEquals(0, ints.length());
+    ints.close();
+    ints.contains(0);
+  } // closeTest()
+} // MappedSortedListTest
@@ -0,0 +1,122 @@
+package taojava.test;
+
+import static org.junit.Assert.*;
+
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import taojava.util.OffHeapSkipList;
+
+/**
+ * Tests of off-heap skip lists.
+ *
+ * @author Albert Owusu-Asare
+ */
+public class OffHeapSkipListTest
+{
+  /**
+   * A random number generator for the randomized tests.
+   */
+  Random random = new Random();
+
+  /**
+   * Make random updates to the list and compare the result to the same
+   * updates made with a TreeSet.
+   */
+  @Test
+  public void randomTest()
+  {
+    try (OffHeapSkipList longs = new OffHeapSkipList())
+      {
+        TreeSet<Long> expected = new TreeSet<Long>();
+        for (int i = 0; i < 5000; i++)
+          {
+            long val = (random.nextInt(2000) - 1000) * 10000000000L;
+            if (random.nextInt(3) > 0)
+              {
+                longs.add(val);
+                expected.add(val);
+              } // if we add
+            else
+              {
+                longs.remove(val);
+                expected.remove(val);
+              } // if we remove
+            assertEquals(expected.contains(val), longs.contains(val));
+          } // for i
+
+        assertEquals(expected.size(), longs.size());
+        assertEquals(expected.size(), longs.length());
+        PrimitiveIterator.OfLong it = longs.iterator();
+        long i = 0;
+        for (Long val : expected)
+          {
+            assertEquals(val.longValue(), it.nextLong());
+            assertEquals(val.longValue(), longs.get(i));
+            assertEquals(i, longs.rankOf(val));
+            i++;
+          } // for val
+        assertFalse(it.hasNext());
+      } // try
+  } // randomTest()
+
+  /**
+   * Make sure that removing through the iterator works, and that
+   * removed nodes are reused.
+   */
+  @Test
+  public void iteratorRemoveTest()
+  {
+    try (OffHeapSkipList longs = new OffHeapSkipList())
+      {
+        for (int round = 0; round < 3; round++)
+          {
+            for (long val = 0; val < 1000; val++)
+              longs.add(val);
+            PrimitiveIterator.OfLong it = longs.iterator();
+            while (it.hasNext())
+              if (it.nextLong() % 2 == 1)
+                it.remove();
+            assertEquals(500, longs.size());
+            for (long val = 0; val < 1000; val++)
+              assertEquals(val % 2 == 0, longs.contains(val));
+            it = longs.iterator();
+            while (it.hasNext())
+              {
+                it.nextLong();
+                it.remove();
+              } // while
+            assertEquals(0, longs.size());
+          } // for round
+      } // try
+  } // iteratorRemoveTest()
+
+  /**
+   * Make sure that a closed list cannot be used.
+   */
+  @Test
+  public void closeTest()
+  {
+    OffHeapSkipList longs = new OffHeapSkipList();
+    longs.add(1L);
+    longs.close();
+    longs.close();
+    Runnable[] uses = { () -> longs.contains(1L), () -> longs.length(),
+                        () -> longs.size() };
+    for (Runnable use : uses)
+      {
+        try
+          {
+            use.run();
+            fail("used a closed list");
+          } // try
+        catch (IllegalStateException e)
+          {
+            // Expected
+          } // catch
+      } // for use
+  } // closeTest()
+} // OffHeapSkipListTest
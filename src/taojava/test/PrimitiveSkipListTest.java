@@ -0,0 +1,100 @@
+package taojava.test;
+
+import static org.junit.Assert.*;
+
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import taojava.util.IntSkipList;
+import taojava.util.LongSkipList;
+
+/**
+ * Tests of skip lists of primitive values.
+ *
+ * @author Albert Owusu-Asare
+ */
+public class PrimitiveSkipListTest
+{
+  /**
+   * A random number generator for the randomized tests.
+   */
+  Random random = new Random();
+
+  /**
+   * Make random updates to an IntSkipList and compare the result to the
+   * same updates made with a TreeSet.
+   */
+  @Test
+  public void intRandomTest()
+  {
+    IntSkipList ints = new IntSkipList();
+    TreeSet<Integer> expected = new TreeSet<Integer>();
+    for (int i = 0; i < 2000; i++)
+      {
+        int val = random.nextInt(1000) - 500;
+        if (random.nextBoolean())
+          {
+            ints.add(val);
+            expected.add(val);
+          } // if we add
+        else
+          {
+            ints.remove(val);
+            expected.remove(val);
+          } // if we remove
+        assertEquals(expected.contains(val), ints.contains(val));
+      } // for i
+
+    assertEquals(expected.size(), ints.length());
+    PrimitiveIterator.OfInt it = ints.iterator();
+    int i = 0;
+    for (Integer val : expected)
+      {
+        assertEquals(val.intValue(), it.nextInt());
+        assertEquals(val.intValue(), ints.get(i));
+        assertEquals(i, ints.rank(val));
+        i++;
+      } // for val
+    assertFalse(it.hasNext());
+  } // intRandomTest()
+
+  /**
+   * Make random updates to a LongSkipList, including values that do not
+   * fit in an int, and compare the result to a TreeSet.
+   */
+  @Test
+  public void longRandomTest()
+  {
+    LongSkipList longs = new LongSkipList();
+    TreeSet<Long> expected = new TreeSet<Long>();
+    for (int i = 0; i < 2000; i++)
+      {
+        long val = (random.nextInt(1000) - 500) * 10000000000L;
+        if (random.nextBoolean())
+          {
+            longs.add(val);
+            expected.add(val);
+          } // if we add
+        else
+          {
+            longs.remove(val);
+            expected.remove(val);
+          } // if we remove
+      } // for i
+
+    // Remove the negative values through the iterator
+    PrimitiveIterator.OfLong it = longs.iterator();
+    while (it.hasNext())
+      if (it.nextLong() < 0)
+        it.remove();
+    expected = new TreeSet<Long>(expected.tailSet(0L));
+
+    assertEquals(expected.size(), longs.length());
+    int i = 0;
+    for (Long val : expected)
+      assertEquals(val.longValue(), longs.get(i++));
+  } // longRandomTest()
+} // class PrimitiveSkipListTest
@@ -0,0 +1,142 @@
+package taojava.test;
+
+import static org.junit.Assert.*;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+import taojava.util.SkipListMap;
+
+/**
+ * Tests of skip list maps.
+ *
+ * @author Albert Owusu-Asare
+ */
+public class SkipListMapTest
+{
+  /**
+   * A random number generator for the randomized tests.
+   */
+  Random random = new Random();
+
+  /**
+   * Make sure that two entries are both missing or hold the same key
+   * and value.
+   */
+  static void assertSameEntry(Map.Entry<Integer, String> expected,
+                              Map.Entry<Integer, String> actual)
+  {
+    if (expected == null)
+      assertNull(actual);
+    else
+      assertEquals(expected, actual);
+  } // assertSameEntry(Map.Entry<Integer, String>, Map.Entry<Integer, String>)
+
+  /**
+   * Make random updates to a SkipListMap and compare the results to the
+   * same updates made with a TreeMap.
+   */
+  @Test
+  public void randomTest()
+  {
+    SkipListMap<Integer, String> map = new SkipListMap<Integer, String>();
+    TreeMap<Integer, String> expected = new TreeMap<Integer, String>();
+    for (int i = 0; i < 3000; i++)
+      {
+        int key = random.nextInt(500);
+        String value = "v" + i;
+        switch (random.nextInt(4))
+          {
+            case 0:
+            case 1:
+              assertEquals(expected.put(key, value), map.put(key, value));
+              break;
+            case 2:
+              assertEquals(expected.remove(key), map.remove(key));
+              break;
+            default:
+              assertEquals(expected.replace(key, value),
+                           map.replace(key, value));
+          } // switch
+        assertEquals(expected.get(key), map.get(key));
+        assertEquals(expected.containsKey(key), map.containsKey(key));
+      } // for i
+
+    assertEquals(expected.size(), map.size());
+    for (int key = -1; key <= 501; key++)
+      {
+        assertSameEntry(expected.ceilingEntry(key), map.ceilingEntry(key));
+        assertSameEntry(expected.floorEntry(key), map.floorEntry(key));
+        assertSameEntry(expected.higherEntry(key), map.higherEntry(key));
+        assertSameEntry(expected.lowerEntry(key), map.lowerEntry(key));
+      } // for key
+
+    Iterator<Map.Entry<Integer, String>> it = map.iterator();
+    for (Map.Entry<Integer, String> entry : expected.entrySet())
+      assertEquals(entry, it.next());
+    assertFalse(it.hasNext());
+  } // randomTest()
+
+  /**
+   * Make sure that entries write through to the map, and that replacing
+   * a value does not disturb iterators.
+   */
+  @Test
+  public void inPlaceTest()
+  {
+    SkipListMap<Integer, String> map = new SkipListMap<Integer, String>();
+    for (int key = 0; key < 100; key++)
+      map.put(key, "a");
+
+    Iterator<Map.Entry<Integer, String>> it = map.iterator();
+    while (it.hasNext())
+      {
+        Map.Entry<Integer, String> entry = it.next();
+        map.replace(entry.getKey() + 1, "b");
+        if (entry.getKey() % 2 == 0)
+          entry.setValue("c");
+        if (entry.getKey() % 10 == 0)
+          it.remove();
+      } // while
+    assertEquals(90, map.size());
+    assertNull(map.get(50));
+    assertEquals("c", map.get(52));
+    assertEquals("b", map.get(51));
+    assertEquals("b", map.ceilingEntry(99).getValue());
+  } // inPlaceTest()
+
+  /**
+   * Make sure that every operation that takes a key rejects null, as
+   * NavigableMap does, and leaves the map alone.
+   */
+  @Test
+  public void nullKeyTest()
+  {
+    SkipListMap<Integer, String> map = new SkipListMap<Integer, String>();
+    map.put(1, "a");
+    Runnable[] ops = { () -> map.put(null, "b"), () -> map.get(null),
+                       () -> map.containsKey(null),
+                       () -> map.replace(null, "b"), () -> map.remove(null),
+                       () -> map.ceilingEntry(null),
+                       () -> map.higherEntry(null),
+                       () -> map.floorEntry(null), () -> map.lowerEntry(null) };
+    for (Runnable op : ops)
+      {
+        try
+          {
+            op.run();
+            fail("null key accepted");
+          } // try
+        catch (NullPointerException e)
+          {
+            // Expected
+          } // catch
+      } // for op
+    assertEquals(1, map.size());
+    assertEquals("a", map.get(1));
+  } // nullKeyTest()
+} // SkipListMapTest
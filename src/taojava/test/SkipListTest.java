@@ -1,8 +1,25 @@
 package taojava.test;
 
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
 import org.junit.Before;
+import org.junit.Test;
 
+import taojava.util.LevelGenerator;
+import taojava.util.RandomLevelGenerator;
+import taojava.util.SeededLevelGenerator;
 import taojava.util.SkipList;
+import taojava.util.XorShiftLevelGenerator;
 
 /**
  * Tests of sorted array lists.
@@ -19,4 +36,578 @@ extends SortedListTest
     this.strings = new SkipList<String>();
     this.duplicationAllowed = false;
   } // setup
+
+  /**
+   * Build a list from sorted input and make sure that it behaves like
+   * one built by repeated adds.
+   */
+  @Test
+  public void sortedLoadTest()
+  {
+    Integer[] vals = new Integer[1000];
+    for (int i = 0; i < vals.length; i++)
+      vals[i] = 3 * (i / 2);
+    SkipList<Integer> loaded = new SkipList<Integer>(vals);
+    // Every other value was a duplicate
+    assertEquals(500, loaded.length());
+    assertTrue(inOrder(loaded.iterator()));
+    for (int i = 0; i < 500; i++)
+      {
+        assertEquals(Integer.valueOf(3 * i), loaded.get(i));
+        assertEquals(i, loaded.rank(3 * i));
+        assertTrue(loaded.contains(3 * i));
+        assertFalse(loaded.contains(3 * i + 1));
+      } // for i
+
+    // The loaded list should support the usual updates
+    for (int i = 0; i < 1500; i += 2)
+      loaded.add(i);
+    for (int i = 0; i < 1500; i += 4)
+      loaded.remove(i);
+    ArrayList<Integer> expected = new ArrayList<Integer>();
+    for (int i = 0; i < 1500; i++)
+      if ((i % 3 == 0 || i % 2 == 0) && i % 4 != 0)
+        expected.add(i);
+    assertEquals(expected.size(), loaded.length());
+    Iterator<Integer> it = loaded.iterator();
+    for (int i = 0; i < expected.size(); i++)
+      {
+        assertEquals(expected.get(i), it.next());
+        assertEquals(expected.get(i), loaded.get(i));
+      } // for i
+  } // sortedLoadTest()
+
+  /**
+   * Add and remove batches of values and compare the result to the
+   * same updates made with a TreeSet.
+   */
+  @Test
+  public void batchTest()
+  {
+    SkipList<Integer> list = new SkipList<Integer>();
+    TreeSet<Integer> expected = new TreeSet<Integer>();
+    for (int round = 0; round < 20; round++)
+      {
+        ArrayList<Integer> adds = new ArrayList<Integer>();
+        ArrayList<Integer> removes = new ArrayList<Integer>();
+        for (int i = 0; i < 100; i++)
+          {
+            adds.add(random.nextInt(1000));
+            removes.add(random.nextInt(1000));
+          } // for i
+        list.addAll(adds);
+        expected.addAll(adds);
+        list.removeAll(removes);
+        expected.removeAll(removes);
+
+        assertEquals(expected.size(), list.length());
+        int i = 0;
+        for (Integer val : expected)
+          {
+            assertEquals(val, list.get(i));
+            assertEquals(i, list.rank(val));
+            i++;
+          } // for val
+      } // for round
+  } // batchTest()
+
+  /**
+   * Make a walk of nearby updates and lookups with finger searches on,
+   * and compare the result to the same updates made with a TreeSet.
+   */
+  @Test
+  public void fingerTest()
+  {
+    SkipList<Integer> list = new SkipList<Integer>();
+    list.setFinger(true);
+    TreeSet<Integer> expected = new TreeSet<Integer>();
+    int val = 5000;
+    for (int i = 0; i < 5000; i++)
+      {
+        val += random.nextInt(21) - 10;
+        switch (random.nextInt(3))
+          {
+            case 0:
+              list.add(val);
+              expected.add(val);
+              break;
+            case 1:
+              list.remove(val);
+              expected.remove(val);
+              break;
+            default:
+              assertEquals(expected.contains(val), list.contains(val));
+          } // switch
+      } // for i
+
+    assertEquals(5000, list.fingerSearches());
+    assertTrue(list.fingerHits() > 0);
+    assertEquals(expected.size(), list.length());
+    int i = 0;
+    for (Integer lav : expected)
+      assertEquals(lav, list.get(i++));
+
+    // Updates made without the finger must not confuse it
+    list.setFinger(false);
+    list.add(val + 1);
+    list.setFinger(true);
+    list.remove(val + 1);
+    assertFalse(list.contains(val + 1));
+  } // fingerTest()
+
+  /**
+   * Churn a list that recycles its nodes, and compare the result to the
+   * same updates made with a TreeSet.
+   */
+  @Test
+  public void recyclingTest()
+  {
+    SkipList<Integer> list = new SkipList<Integer>();
+    list.setRecycling(8);
+    TreeSet<Integer> expected = new TreeSet<Integer>();
+    for (int i = 0; i < 5000; i++)
+      {
+        int val = random.nextInt(200);
+        if (random.nextBoolean())
+          {
+            list.add(val);
+            expected.add(val);
+          } // if we add
+        else
+          {
+            list.remove(val);
+            expected.remove(val);
+          } // if we remove
+      } // for i
+
+    // Remove through an iterator, too
+    Iterator<Integer> it = list.iterator();
+    while (it.hasNext())
+      if (it.next() % 3 == 0)
+        it.remove();
+    for (int i = 0; i < 200; i += 3)
+      expected.remove(i);
+    for (int i = 0; i < 100; i++)
+      {
+        list.add(3 * i);
+        expected.add(3 * i);
+      } // for i
+
+    assertEquals(expected.size(), list.length());
+    for (Integer val : list)
+      assertEquals(expected.pollFirst(), val);
+  } // recyclingTest()
+
+  /**
+   * Seeded generators should repeat themselves, and every generator
+   * should produce roughly geometric levels within range.
+   */
+  @Test
+  public void levelGeneratorTest()
+  {
+    SeededLevelGenerator first = new SeededLevelGenerator(207);
+    SeededLevelGenerator second = new SeededLevelGenerator(207);
+    for (int i = 0; i < 100; i++)
+      assertEquals(first.randomLevel(20), second.randomLevel(20));
+
+    LevelGenerator[] generators =
+        { new XorShiftLevelGenerator(0.25), new SeededLevelGenerator(1, 0.25),
+         new RandomLevelGenerator(0.25) };
+    for (LevelGenerator generator : generators)
+      {
+        int[] counts = new int[4];
+        for (int i = 0; i < 100000; i++)
+          {
+            int level = generator.randomLevel(4);
+            assertTrue(level >= 0 && level < 4);
+            counts[level]++;
+          } // for i
+        // About three quarters of the nodes should stay at level 0
+        assertTrue(counts[0] > 72000 && counts[0] < 78000);
+        assertTrue(counts[1] > counts[2] && counts[2] > counts[3]);
+      } // for generator
+  } // levelGeneratorTest()
+
+  /**
+   * Out-of-order input should be rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void unsortedLoadTest()
+  {
+    new SkipList<Integer>(new Integer[] { 1, 2, 5, 3 });
+  } // unsortedLoadTest()
+
+  /**
+   * Remove values through an iterator, with and without recycling, and
+   * make sure that the widths, length, and further iteration all stay
+   * right.
+   */
+  @Test
+  public void iteratorRemoveTest()
+  {
+    for (int limit = 0; limit <= 8; limit += 8)
+      {
+        SkipList<Integer> slist = new SkipList<Integer>();
+        slist.setRecycling(limit);
+        TreeSet<Integer> expected = new TreeSet<Integer>();
+        for (int i = 0; i < 1000; i++)
+          {
+            slist.add(i);
+            expected.add(i);
+          } // for i
+
+        Iterator<Integer> it = slist.iterator();
+        while (it.hasNext())
+          {
+            int val = it.next();
+            if (val % 3 != 1)
+              {
+                it.remove();
+                expected.remove(val);
+              } // if we remove val
+          } // while
+        assertEquals(expected.size(), slist.length());
+        int i = 0;
+        for (Integer val : expected)
+          {
+            assertEquals(val, slist.get(i));
+            assertEquals(i, slist.rank(val));
+            i++;
+          } // for val
+
+        // Removing the same value twice is an error
+        it = slist.iterator();
+        it.next();
+        it.remove();
+        try
+          {
+            it.remove();
+            fail("removed twice");
+          } // try
+        catch (IllegalStateException e)
+          {
+            // Expected
+          } // catch
+
+        // Empty the list through the iterator
+        while (it.hasNext())
+          {
+            it.next();
+            it.remove();
+          } // while
+        assertEquals(0, slist.length());
+        slist.add(5);
+        assertEquals(Integer.valueOf(5), slist.get(0));
+      } // for limit
+  } // iteratorRemoveTest()
+
+  /**
+   * Split a list into pieces and stream over it in parallel, and make
+   * sure that the pieces have the sizes they claim and together hold
+   * every value in order.
+   */
+  @Test
+  public void spliteratorTest()
+  {
+    SkipList<Integer> slist = new SkipList<Integer>();
+    for (int i = 0; i < 10000; i++)
+      slist.add(2 * i);
+
+    Spliterator<Integer> right = slist.spliterator();
+    assertTrue(right.hasCharacteristics(Spliterator.SORTED
+                                        | Spliterator.SUBSIZED));
+    assertEquals(10000, right.estimateSize());
+    Spliterator<Integer> left = right.trySplit();
+    assertEquals(5000, left.estimateSize());
+    assertEquals(5000, right.estimateSize());
+    left.tryAdvance((val) -> assertEquals(Integer.valueOf(0), val));
+    right.tryAdvance((val) -> assertEquals(Integer.valueOf(10000), val));
+    assertEquals(4999, left.estimateSize());
+
+    // A parallel stream should see every value, in order
+    List<Integer> vals =
+        StreamSupport.stream(slist.spliterator(), true)
+                     .map((val) -> val / 2)
+                     .collect(Collectors.toList());
+    assertEquals(10000, vals.size());
+    for (int i = 0; i < vals.size(); i++)
+      assertEquals(Integer.valueOf(i), vals.get(i));
+    assertEquals(10000,
+                 StreamSupport.stream(slist.spliterator(), true)
+                              .filter((val) -> val % 4 == 0).count() * 2);
+
+    // An empty list has nothing to split
+    Spliterator<Integer> small = new SkipList<Integer>().spliterator();
+    assertNull(small.trySplit());
+    assertFalse(small.tryAdvance((val) -> fail("empty list")));
+  } // spliteratorTest()
+
+  /**
+   * Take snapshots while updating a list in every way it can be updated,
+   * and make sure that each one still holds the values the list had
+   * when it was taken.
+   */
+  @Test
+  public void snapshotTest()
+  {
+    SkipList<Integer> slist = new SkipList<Integer>();
+    slist.setRecycling(8);
+    TreeSet<Integer> expected = new TreeSet<Integer>();
+    ArrayList<SkipList<Integer>.Snapshot> snapshots =
+        new ArrayList<SkipList<Integer>.Snapshot>();
+    ArrayList<ArrayList<Integer>> contents = new ArrayList<ArrayList<Integer>>();
+    for (int round = 0; round < 40; round++)
+      {
+        for (int i = 0; i < 100; i++)
+          {
+            int val = random.nextInt(300);
+            if (random.nextBoolean())
+              {
+                slist.add(val);
+                expected.add(val);
+              } // if we add
+            else
+              {
+                slist.remove(val);
+                expected.remove(val);
+              } // if we remove
+          } // for i
+        if (round % 10 == 3)
+          {
+            final int mod = round % 7 + 2;
+            slist.removeIf((val) -> val % mod == 0);
+            expected.removeIf((val) -> val % mod == 0);
+          } // if we remove in bulk
+        if (round % 10 == 7)
+          {
+            Iterator<Integer> it = slist.iterator();
+            while (it.hasNext())
+              if (it.next() % 5 == 1)
+                it.remove();
+            expected.removeIf((val) -> val % 5 == 1);
+          } // if we remove while iterating
+
+        // Close some of the older snapshots, out of order
+        if (round % 4 == 0 && !snapshots.isEmpty())
+          {
+            int victim = random.nextInt(snapshots.size());
+            snapshots.remove(victim).close();
+            contents.remove(victim);
+          } // if we close a snapshot
+        snapshots.add(slist.snapshot());
+        contents.add(new ArrayList<Integer>(expected));
+
+        for (int s = 0; s < snapshots.size(); s++)
+          {
+            ArrayList<Integer> vals = new ArrayList<Integer>();
+            for (Integer val : snapshots.get(s))
+              vals.add(val);
+            assertEquals(contents.get(s), vals);
+            assertEquals(contents.get(s).size(), snapshots.get(s).length());
+          } // for s
+      } // for round
+
+    // The list itself should be unharmed
+    assertEquals(expected.size(), slist.length());
+    int i = 0;
+    for (Integer val : expected)
+      assertEquals(val, slist.get(i++));
+
+    // A closed snapshot cannot be read
+    SkipList<Integer>.Snapshot closed = snapshots.get(0);
+    closed.close();
+    closed.close();
+    try
+      {
+        closed.iterator();
+        fail("read a closed snapshot");
+      } // try
+    catch (IllegalStateException e)
+      {
+        // Expected
+      } // catch
+  } // snapshotTest()
+
+  /**
+   * Update a list in every way it can be updated, and make sure that
+   * iterating backward gives the values in reverse.
+   */
+  @Test
+  public void descendingTest()
+  {
+    Integer[] sorted = new Integer[100];
+    for (int i = 0; i < sorted.length; i++)
+      sorted[i] = 4 * i;
+    SkipList<Integer> slist = new SkipList<Integer>(sorted);
+    slist.setRecycling(8);
+    TreeSet<Integer> expected = new TreeSet<Integer>(Arrays.asList(sorted));
+    for (int i = 0; i < 1000; i++)
+      {
+        int val = random.nextInt(500);
+        if (random.nextBoolean())
+          {
+            slist.add(val);
+            expected.add(val);
+          } // if we add
+        else
+          {
+            slist.remove(val);
+            expected.remove(val);
+          } // if we remove
+      } // for i
+    slist.removeIf((val) -> val % 7 == 0);
+    expected.removeIf((val) -> val % 7 == 0);
+    Iterator<Integer> it = slist.iterator();
+    while (it.hasNext())
+      if (it.next() % 5 == 0)
+        it.remove();
+    expected.removeIf((val) -> val % 5 == 0);
+    assertEquals(expected.pollFirst(), slist.pollFirst());
+    assertEquals(expected.last(), slist.last());
+
+    it = slist.descendingIterator();
+    for (Integer val : expected.descendingSet())
+      assertEquals(val, it.next());
+    assertFalse(it.hasNext());
+    for (int upper = -1; upper < 510; upper += 17)
+      {
+        it = slist.descendingIteratorFrom(upper);
+        for (Integer val : expected.headSet(upper, true).descendingSet())
+          assertEquals(val, it.next());
+        assertFalse(it.hasNext());
+      } // for upper
+
+    // Remove going backward
+    it = slist.descendingIterator();
+    while (it.hasNext())
+      if (it.next() % 3 == 0)
+        it.remove();
+    expected.removeIf((val) -> val % 3 == 0);
+    assertEquals(expected.size(), slist.length());
+    int i = 0;
+    for (Integer val : expected)
+      assertEquals(val, slist.get(i++));
+    it = slist.descendingIterator();
+    for (Integer val : expected.descendingSet())
+      assertEquals(val, it.next());
+    assertFalse(it.hasNext());
+  } // descendingTest()
+
+  /**
+   * Tally values in a counting list, and make sure that every way of
+   * reading the list sees each copy.
+   */
+  @Test
+  public void countingTest()
+  {
+    SkipList<Integer> tally = new SkipList<Integer>();
+    tally.setCounting(true);
+    TreeMap<Integer, Integer> counts = new TreeMap<Integer, Integer>();
+    for (int i = 0; i < 3000; i++)
+      {
+        int val = random.nextInt(100);
+        if (random.nextInt(3) > 0)
+          {
+            tally.add(val);
+            counts.merge(val, 1, Integer::sum);
+          } // if we add
+        else
+          {
+            tally.remove(val);
+            if (counts.containsKey(val) && counts.merge(val, -1, Integer::sum) == 0)
+              counts.remove(val);
+          } // if we remove
+      } // for i
+    assertCounts(counts, tally);
+
+    // Remove some copies as we iterate, both ways
+    Iterator<Integer> it = tally.iterator();
+    while (it.hasNext())
+      {
+        int val = it.next();
+        if (val % 3 == 0)
+          {
+            it.remove();
+            if (counts.merge(val, -1, Integer::sum) == 0)
+              counts.remove(val);
+          } // if we remove a copy of val
+      } // while
+    assertCounts(counts, tally);
+    it = tally.descendingIterator();
+    while (it.hasNext())
+      {
+        int val = it.next();
+        if (val % 4 == 1)
+          {
+            it.remove();
+            if (counts.merge(val, -1, Integer::sum) == 0)
+              counts.remove(val);
+          } // if we remove a copy of val
+      } // while
+    assertCounts(counts, tally);
+
+    // Bulk updates count every copy
+    tally.addAll(Arrays.asList(7, 7, 8));
+    counts.merge(7, 2, Integer::sum);
+    counts.merge(8, 1, Integer::sum);
+    tally.removeIf((val) -> val % 5 == 0);
+    counts.keySet().removeIf((val) -> val % 5 == 0);
+    assertCounts(counts, tally);
+    Integer first = counts.firstKey();
+    assertEquals(first, tally.pollFirst());
+    if (counts.merge(first, -1, Integer::sum) == 0)
+      counts.remove(first);
+    assertCounts(counts, tally);
+
+    // Streams must not take the copies for distinct values
+    assertFalse(tally.spliterator().hasCharacteristics(Spliterator.DISTINCT));
+    assertEquals(counts.size(),
+                 StreamSupport.stream(tally.spliterator(), false)
+                              .distinct().count());
+    assertEquals(new ArrayList<Integer>(counts.keySet()),
+                 StreamSupport.stream(tally.spliterator(), true).distinct()
+                              .collect(Collectors.toList()));
+
+    try
+      {
+        tally.setCounting(false);
+        fail("changed the mode of a list in use");
+      } // try
+    catch (IllegalStateException e)
+      {
+        // Expected
+      } // catch
+  } // countingTest()
+
+  /**
+   * Make sure that a counting list holds the given counts.
+   */
+  void assertCounts(TreeMap<Integer, Integer> counts, SkipList<Integer> tally)
+  {
+    ArrayList<Integer> copies = new ArrayList<Integer>();
+    for (Integer val : counts.keySet())
+      {
+        assertEquals(counts.get(val).intValue(), tally.count(val));
+        assertEquals(copies.size(), tally.rank(val));
+        for (int i = 0; i < counts.get(val); i++)
+          copies.add(val);
+      } // for val
+    assertEquals(0, tally.count(-1));
+    assertEquals(copies.size(), tally.length());
+
+    ArrayList<Integer> seen = new ArrayList<Integer>();
+    for (Integer val : tally)
+      seen.add(val);
+    assertEquals(copies, seen);
+    for (int i = 0; i < copies.size(); i++)
+      assertEquals(copies.get(i), tally.get(i));
+    assertEquals(copies,
+                 StreamSupport.stream(tally.spliterator(), true)
+                              .collect(Collectors.toList()));
+    seen.clear();
+    Iterator<Integer> it = tally.descendingIterator();
+    while (it.hasNext())
+      seen.add(0, it.next());
+    assertEquals(copies, seen);
+  } // assertCounts(TreeMap<Integer, Integer>, SkipList<Integer>)
 } // SkipListTest
@@ -2,9 +2,12 @@ package taojava.test;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Random;
+import java.util.TreeSet;
 
 import static org.junit.Assert.*;
 
@@ -250,11 +253,11 @@ public class SortedListTest
   @Test
   public void repeatedValuesTest()
   {
-    int repeat = 2;
     boolean duplicateFound = false;
     //loop through adding a value to the list repeat number of times
     for (int i = 0; i < 10; i++)
       {
+        int repeat = 2;
         while (repeat > 0)
           {
             ints.add(i);
@@ -356,6 +359,252 @@ public class SortedListTest
       } // for val
   } // testContainsOnlyAdd()
 
+  /**
+   * Verify that get(i) returns the ith smallest value after a random
+   * sequence of additions and removals.
+   */
+  @Test
+  public void testGet()
+  {
+    ArrayList<String> operations = new ArrayList<String>();
+    ArrayList<Integer> vals = new ArrayList<Integer>();
+    for (int i = 0; i < 500; i++)
+      {
+        int rand = random.nextInt(300);
+        if (random.nextInt(3) > 0)
+          {
+            if (!vals.contains(rand))
+              vals.add(rand);
+            operations.add("ints.add(" + rand + ")");
+            ints.add(rand);
+          } // if we add
+        else
+          {
+            vals.remove((Integer) rand);
+            operations.add("ints.remove(" + rand + ")");
+            ints.remove(rand);
+          } // if we remove
+      } // for i
+    Collections.sort(vals);
+    assertEquals(vals.size(), ints.length());
+    for (int i = 0; i < vals.size(); i++)
+      {
+        if (!vals.get(i).equals(ints.get(i)))
+          {
+            for (String op : operations)
+              System.err.println(op + ";");
+            dump(ints);
+            fail("get(" + i + ") returned " + ints.get(i) + " instead of "
+                 + vals.get(i));
+          } // if the ith value is wrong
+      } // for i
+  } // testGet()
+
+  /**
+   * Verify that rank reports the number of smaller values, both for
+   * values in the list and for values that are not.
+   */
+  @Test
+  public void testRank()
+  {
+    ArrayList<Integer> vals = new ArrayList<Integer>();
+    for (int i = 0; i < 200; i++)
+      {
+        int rand = 2 * random.nextInt(200);
+        if (!vals.contains(rand))
+          vals.add(rand);
+        ints.add(rand);
+      } // for i
+    Collections.sort(vals);
+    assertEquals(0, ints.rank(-1));
+    for (int i = 0; i < vals.size(); i++)
+      {
+        assertEquals(i, ints.rank(vals.get(i)));
+        assertEquals(i + 1, ints.rank(vals.get(i) + 1));
+      } // for i
+  } // testRank()
+
+  /**
+   * Make sure that removeIf and retainAll remove exactly the values
+   * they should, and leave the list fully usable.
+   */
+  @Test
+  public void testRemoveIf()
+  {
+    ArrayList<Integer> vals = new ArrayList<Integer>();
+    for (int i = 0; i < 300; i++)
+      {
+        int rand = random.nextInt(600);
+        if (!vals.contains(rand))
+          vals.add(rand);
+        ints.add(rand);
+      } // for i
+    Collections.sort(vals);
+
+    assertFalse(ints.removeIf((val) -> val < 0));
+    assertTrue(ints.removeIf((val) -> val % 3 == 0) || vals.isEmpty());
+    vals.removeIf((val) -> val % 3 == 0);
+    ArrayList<Integer> keep = new ArrayList<Integer>();
+    for (int i = 0; i < 600; i += 2)
+      keep.add(i);
+    ints.retainAll(keep);
+    vals.retainAll(keep);
+
+    assertEquals(vals.size(), ints.length());
+    Iterator<Integer> it = ints.iterator();
+    for (int i = 0; i < vals.size(); i++)
+      {
+        assertEquals(vals.get(i), it.next());
+        assertEquals(vals.get(i), ints.get(i));
+        assertEquals(i, ints.rank(vals.get(i)));
+      } // for i
+    assertFalse(it.hasNext());
+
+    // The list should still take updates
+    ints.add(-3);
+    assertTrue(ints.contains(-3));
+    assertEquals(Integer.valueOf(-3), ints.get(0));
+    assertTrue(ints.removeIf((val) -> true));
+    assertEquals(0, ints.length());
+  } // testRemoveIf()
+
+  /**
+   * Seek into the list and take views of ranges of it, and compare them
+   * to the same ranges of a sorted array list of the values.
+   */
+  @Test
+  public void testRanges()
+  {
+    ArrayList<Integer> vals = new ArrayList<Integer>();
+    for (int i = 0; i < 200; i++)
+      {
+        int rand = random.nextInt(400);
+        if (!vals.contains(rand))
+          vals.add(rand);
+        ints.add(rand);
+      } // for i
+    Collections.sort(vals);
+
+    for (int trial = 0; trial < 50; trial++)
+      {
+        int from = random.nextInt(420) - 10;
+        int to = from + random.nextInt(100);
+        ArrayList<Integer> range = new ArrayList<Integer>();
+        for (Integer val : vals)
+          if (val >= from && val < to)
+            range.add(val);
+
+        Iterator<Integer> it = ints.iteratorFrom(from);
+        for (Integer val : vals)
+          if (val >= from)
+            assertEquals(val, it.next());
+        assertFalse(it.hasNext());
+
+        assertEquals(range.size(), ints.countRange(from, to));
+        SortedList<Integer> view = ints.subList(from, to);
+        assertEquals(range.size(), view.length());
+        int i = 0;
+        for (Integer val : view)
+          {
+            assertEquals(range.get(i), val);
+            assertEquals(range.get(i), view.get(i));
+            assertEquals(i, view.rank(val));
+            i++;
+          } // for val
+        assertEquals(range.size(), i);
+        assertFalse(view.contains(to));
+        assertEquals(0, view.rank(from - 1));
+        assertEquals(range.size(), view.rank(to + 1));
+      } // for trial
+
+    // Heads and tails split the list
+    int middle = vals.get(vals.size() / 2);
+    assertEquals(vals.size() / 2, ints.headList(middle).length());
+    assertEquals(vals.size() - vals.size() / 2, ints.tailList(middle).length());
+    assertEquals(Integer.valueOf(middle), ints.tailList(middle).get(0));
+    assertEquals(vals.size(), ints.countRange(null, null));
+
+    // Updates through a view reach the list, even after reading ahead
+    SortedList<Integer> view = ints.subList(100, 300);
+    Iterator<Integer> it = view.iterator();
+    while (it.hasNext())
+      {
+        int val = it.next();
+        if (val % 3 == 0)
+          it.hasNext();
+        if (val % 2 == 0)
+          it.remove();
+      } // while
+    vals.removeIf((val) -> val >= 100 && val < 300 && val % 2 == 0);
+    view.add(101);
+    if (!vals.contains(101))
+      vals.add(101);
+    Collections.sort(vals);
+    assertEquals(vals.size(), ints.length());
+    for (int i = 0; i < vals.size(); i++)
+      assertEquals(vals.get(i), ints.get(i));
+    try
+      {
+        view.add(300);
+        fail("added a value out of range");
+      } // try
+    catch (IllegalArgumentException e)
+      {
+        // Expected
+      } // catch
+    assertEquals(vals.contains(300), ints.contains(300));
+  } // testRanges()
+
+  /**
+   * Compare the navigation methods to those of a TreeSet holding the
+   * same values.
+   */
+  @Test
+  public void testNavigation()
+  {
+    assertNull(ints.ceiling(5));
+    assertNull(ints.floor(5));
+    assertNull(ints.pollFirst());
+    try
+      {
+        ints.first();
+        fail("found the first value of an empty list");
+      } // try
+    catch (NoSuchElementException e)
+      {
+        // Expected
+      } // catch
+
+    TreeSet<Integer> vals = new TreeSet<Integer>();
+    for (int i = 0; i < 200; i++)
+      {
+        int rand = random.nextInt(400);
+        vals.add(rand);
+        ints.add(rand);
+      } // for i
+    for (int val = -5; val < 405; val++)
+      {
+        assertEquals(vals.ceiling(val), ints.ceiling(val));
+        assertEquals(vals.higher(val), ints.higher(val));
+        assertEquals(vals.floor(val), ints.floor(val));
+        assertEquals(vals.lower(val), ints.lower(val));
+      } // for val
+    assertEquals(vals.first(), ints.first());
+    assertEquals(vals.last(), ints.last());
+
+    // Drain the list from the front
+    while (!vals.isEmpty())
+      {
+        assertEquals(vals.pollFirst(), ints.pollFirst());
+        assertEquals(vals.size(), ints.length());
+        if (!vals.isEmpty())
+          assertEquals(vals.first(), ints.get(0));
+      } // while
+    assertNull(ints.pollFirst());
+    ints.add(7);
+    assertEquals(Integer.valueOf(7), ints.last());
+  } // testNavigation()
+
   /**
    * An extensive randomized test.
    */
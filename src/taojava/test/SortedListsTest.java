@@ -0,0 +1,123 @@
+package taojava.test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import taojava.util.SkipList;
+import taojava.util.SortedArrayList;
+import taojava.util.SortedLinkedList;
+import taojava.util.SortedList;
+import taojava.util.SortedLists;
+
+/**
+ * Tests of set algebra on sorted lists.
+ *
+ * @author Albert Owusu-Asare
+ */
+public class SortedListsTest
+{
+  /**
+   * A random number generator for the randomized tests.
+   */
+  Random random = new Random();
+
+  /**
+   * Fill slist and expected with count random values below bound.
+   */
+  void fill(SortedList<Integer> slist, TreeSet<Integer> expected, int count,
+            int bound)
+  {
+    for (int i = 0; i < count; i++)
+      {
+        int val = random.nextInt(bound);
+        slist.add(val);
+        expected.add(val);
+      } // for i
+  } // fill(SortedList<Integer>, TreeSet<Integer>, int, int)
+
+  /**
+   * Make sure that slist holds exactly the values of expected.
+   */
+  static void assertSame(TreeSet<Integer> expected, SkipList<Integer> slist)
+  {
+    assertEquals(expected.size(), slist.length());
+    Iterator<Integer> it = slist.iterator();
+    for (Integer val : expected)
+      assertEquals(val, it.next());
+    assertFalse(it.hasNext());
+  } // assertSame(TreeSet<Integer>, SkipList<Integer>)
+
+  /**
+   * Combine lists of every kind and size, and compare the results to
+   * the same operations on TreeSets.
+   */
+  @Test
+  public void algebraTest()
+  {
+    int[][] sizes = { { 0, 0 }, { 0, 100 }, { 500, 500 }, { 20, 20000 },
+                     { 20000, 20 }, { 3000, 1000 } };
+    for (int[] size : sizes)
+      {
+        ArrayList<SortedList<Integer>> lefts = new ArrayList<SortedList<Integer>>();
+        lefts.add(new SkipList<Integer>());
+        lefts.add(new SortedArrayList<Integer>());
+        lefts.add(new SortedLinkedList<Integer>());
+        for (SortedList<Integer> left : lefts)
+          {
+            SkipList<Integer> right = new SkipList<Integer>();
+            TreeSet<Integer> a = new TreeSet<Integer>();
+            TreeSet<Integer> b = new TreeSet<Integer>();
+            fill(left, a, size[0], 4 * Math.max(size[0], size[1]) + 1);
+            fill(right, b, size[1], 4 * Math.max(size[0], size[1]) + 1);
+
+            TreeSet<Integer> union = new TreeSet<Integer>(a);
+            union.addAll(b);
+            TreeSet<Integer> both = new TreeSet<Integer>(a);
+            both.retainAll(b);
+            TreeSet<Integer> aOnly = new TreeSet<Integer>(a);
+            aOnly.removeAll(b);
+            TreeSet<Integer> bOnly = new TreeSet<Integer>(b);
+            bOnly.removeAll(a);
+
+            assertSame(union, SortedLists.union(left, right));
+            assertSame(union, SortedLists.union(right, left));
+            assertSame(both, SortedLists.intersection(left, right));
+            assertSame(both, SortedLists.intersection(right, left));
+            assertSame(aOnly, SortedLists.difference(left, right));
+            assertSame(bOnly, SortedLists.difference(right, left));
+          } // for left
+      } // for size
+  } // algebraTest()
+
+  /**
+   * Counting lists should act like the sets of their values.
+   */
+  @Test
+  public void countingTest()
+  {
+    SkipList<Integer> tally = new SkipList<Integer>();
+    tally.setCounting(true);
+    SkipList<Integer> big = new SkipList<Integer>();
+    TreeSet<Integer> a = new TreeSet<Integer>();
+    TreeSet<Integer> b = new TreeSet<Integer>();
+    fill(tally, a, 200, 100);
+    fill(big, b, 5000, 10000);
+
+    TreeSet<Integer> both = new TreeSet<Integer>(a);
+    both.retainAll(b);
+    TreeSet<Integer> aOnly = new TreeSet<Integer>(a);
+    aOnly.removeAll(b);
+    TreeSet<Integer> union = new TreeSet<Integer>(a);
+    union.addAll(b);
+    assertSame(both, SortedLists.intersection(tally, big));
+    assertSame(aOnly, SortedLists.difference(tally, big));
+    assertSame(union, SortedLists.union(big, tally));
+    assertSame(a, SortedLists.difference(tally, new SortedArrayList<Integer>()));
+  } // countingTest()
+} // class SortedListsTest
@@ -0,0 +1,201 @@
+package taojava.test;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import taojava.util.SkipList;
+import taojava.util.StampedSortedList;
+
+/**
+ * Tests of thread-safe wrappers around skip lists.
+ *
+ * @author Albert Owusu-Asare
+ */
+public class StampedSortedListTest
+extends SortedListTest
+{
+  @Before
+  public void setup()
+  {
+    this.ints = new StampedSortedList<Integer>(new SkipList<Integer>());
+    this.strings = new StampedSortedList<String>(new SkipList<String>());
+    this.duplicationAllowed = false;
+  } // setup
+
+  /**
+   * Have one thread update the list while others read it, and make
+   * sure that the readers always see the values that never change.
+   */
+  @Test
+  public void concurrentReadersTest()
+    throws InterruptedException
+  {
+    // The even values stay put; the writer churns the odd ones
+    for (int i = 0; i < 1000; i += 2)
+      ints.add(i);
+    final boolean[] ok = { true };
+    Thread writer = new Thread()
+      {
+        public void run()
+        {
+          for (int round = 0; round < 20; round++)
+            {
+              for (int i = 1; i < 1000; i += 2)
+                ints.add(i);
+              for (int i = 1; i < 1000; i += 2)
+                ints.remove(i);
+            } // for round
+        } // run()
+      }; // new Thread()
+    Thread[] readers = new Thread[3];
+    for (int t = 0; t < readers.length; t++)
+      {
+        readers[t] = new Thread()
+          {
+            public void run()
+            {
+              for (int round = 0; round < 20; round++)
+                for (int i = 0; i < 1000; i += 2)
+                  if (!ints.contains(i) || ints.length() < 500)
+                    ok[0] = false;
+            } // run()
+          }; // new Thread()
+      } // for t
+    writer.start();
+    for (Thread reader : readers)
+      reader.start();
+    writer.join();
+    for (Thread reader : readers)
+      reader.join();
+
+    assertTrue(ok[0]);
+    assertEquals(500, ints.length());
+    assertEquals(Integer.valueOf(998), ints.get(499));
+  } // concurrentReadersTest()
+
+  /**
+   * Have one thread update the list while others navigate it, and make
+   * sure that the lookups neither see wrong answers nor disturb the
+   * writer.
+   */
+  @Test
+  public void concurrentNavigationTest()
+    throws InterruptedException
+  {
+    // The multiples of four stay put; the writer churns the rest
+    for (int i = 0; i < 4000; i += 4)
+      ints.add(i);
+    final boolean[] ok = { true };
+    Thread writer = new Thread()
+      {
+        public void run()
+        {
+          for (int round = 0; round < 20; round++)
+            {
+              for (int i = 1; i < 4000; i += 2)
+                ints.add(i);
+              for (int i = 1; i < 4000; i += 2)
+                ints.remove(i);
+            } // for round
+        } // run()
+      }; // new Thread()
+    Thread[] readers = new Thread[3];
+    for (int t = 0; t < readers.length; t++)
+      {
+        readers[t] = new Thread()
+          {
+            public void run()
+            {
+              for (int round = 0; round < 20; round++)
+                for (int i = 0; i < 4000; i += 4)
+                  {
+                    Integer floor = ints.floor(i + 2);
+                    Integer ceiling = ints.ceiling(i);
+                    Integer lower = ints.lower(i);
+                    if ((floor == null) || (floor < i) || (floor > i + 2)
+                        || (ceiling == null) || (ceiling != i)
+                        || ((i > 0) && ((lower == null) || (lower < i - 4)
+                                        || (lower >= i))))
+                      ok[0] = false;
+                  } // for i
+            } // run()
+          }; // new Thread()
+      } // for t
+    writer.start();
+    for (Thread reader : readers)
+      reader.start();
+    writer.join();
+    for (Thread reader : readers)
+      reader.join();
+
+    assertTrue(ok[0]);
+    assertEquals(1000, ints.length());
+    for (int i = 0; i < 4000; i++)
+      assertEquals(i % 4 == 0, ints.contains(i));
+    for (int i = 0; i < 1000; i++)
+      assertEquals(Integer.valueOf(4 * i), ints.get(i));
+  } // concurrentNavigationTest()
+
+  /**
+   * Read a list that uses finger searches while another thread updates
+   * it.  Lookups must not disturb the finger the writer relies on.
+   */
+  @Test
+  public void concurrentFingerTest()
+    throws InterruptedException
+  {
+    SkipList<Integer> fingered = new SkipList<Integer>();
+    fingered.setFinger(true);
+    final StampedSortedList<Integer> list =
+        new StampedSortedList<Integer>(fingered);
+    for (int i = 0; i < 4000; i += 4)
+      list.add(i);
+    final boolean[] ok = { true };
+    Thread writer = new Thread()
+      {
+        public void run()
+        {
+          for (int round = 0; round < 50; round++)
+            {
+              for (int i = 1; i < 4000; i += 2)
+                list.add(i);
+              for (int i = 1; i < 4000; i += 2)
+                list.remove(i);
+            } // for round
+        } // run()
+      }; // new Thread()
+    Thread[] readers = new Thread[3];
+    for (int t = 0; t < readers.length; t++)
+      {
+        readers[t] = new Thread()
+          {
+            Random random = new Random();
+
+            public void run()
+            {
+              while (writer.isAlive())
+                {
+                  int i = 2 * random.nextInt(2000);
+                  if (list.contains(i) != (i % 4 == 0))
+                    ok[0] = false;
+                } // while
+            } // run()
+          }; // new Thread()
+      } // for t
+    writer.start();
+    for (Thread reader : readers)
+      reader.start();
+    writer.join();
+    for (Thread reader : readers)
+      reader.join();
+
+    assertTrue(ok[0]);
+    assertEquals(1000, list.length());
+    for (int i = 0; i < 4000; i++)
+      assertEquals(i % 4 == 0, list.contains(i));
+  } // concurrentFingerTest()
+} // StampedSortedListTest
@@ -0,0 +1,461 @@
+package taojava.util;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Skip lists that keep their nodes in a few large parallel arrays
+ * rather than in separate objects.  A node is just an int id: its value
+ * is keys[id], its level is heights[id], and its forward pointers and
+ * widths sit next to each other in links and widths, starting at
+ * linkBase[id].  Searching therefore chases ints through a handful of
+ * arrays instead of references through the heap, and the list needs no
+ * object headers per element beyond those of the values themselves.
+ *
+ * Removed nodes go on a free list for their level, so that a later node
+ * of the same level can reuse both the id and the slots in links.
+ *
+ * @author Albert Owusu-Asare
+ */
+public class ArraySkipList<T extends Comparable<T>>
+    implements SortedList<T>
+{
+  // +-----------+-------------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The id of the head of the list.
+   */
+  static final int HEAD = 0;
+
+  /**
+   * The "id" that marks the end of the list (or of a free list).
+   */
+  static final int NIL = -1;
+
+  /**
+   * The number of nodes we make room for at first.
+   */
+  static final int INITIAL_CAPACITY = 16;
+
+  // +--------+----------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  //the maximum level of the list
+  int MAX_LEVEL;
+  //the  current level number of the list
+  int currentLevel;
+  //size of the list
+  int size;
+  //tracks modifications to the list
+  int mods = 0;
+  //chooses the levels of new nodes
+  LevelGenerator levels;
+
+  //the value of each node
+  Object[] keys;
+  //the level of each node
+  byte[] heights;
+  //where the forward pointers of each node start in links and widths
+  int[] linkBase;
+  //the forward pointers of all the nodes, as node ids
+  int[] links;
+  //the number of level-0 steps each forward pointer skips
+  int[] widths;
+  //the number of node ids and link slots handed out so far
+  int nodeCount;
+  int linkCount;
+
+  //the first free node at each level, chained through their level-0
+  //links
+  int[] free;
+
+  //scratch space for the last node before a value at each level, and
+  //the level-0 positions of those nodes
+  int[] path;
+  int[] pathRank;
+
+  // +--------------+----------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Constructs a new ArraySkipList using default maximum number of
+   * levels.
+   */
+  public ArraySkipList()
+  {
+    this(20);
+  }//ArraySkipList()
+
+  /**
+   * Constructs a new ArraySkipList using a maximum number of levels.
+   * @param maxLevel the maximum level for the list
+   */
+  public ArraySkipList(int maxLevel)
+  {
+    this(maxLevel, new XorShiftLevelGenerator());
+  }//ArraySkipList(int)
+
+  /**
+   * Constructs a new ArraySkipList using a given level generator and
+   * maximum length.
+   * @param maxLevel the maximum number of levels in the skip List
+   *   (at most 127)
+   * @param levels chooses the levels of new nodes
+   */
+  public ArraySkipList(int maxLevel, LevelGenerator levels)
+  {
+    if ((maxLevel < 1) || (maxLevel > Byte.MAX_VALUE))
+      {
+        throw new IllegalArgumentException("Invalid maximum level: "
+                                           + maxLevel);
+      }//if maxLevel will not fit in heights
+    this.MAX_LEVEL = maxLevel;
+    this.levels = levels;
+    this.currentLevel = 0;
+    this.size = 0;
+    this.path = new int[this.MAX_LEVEL];
+    this.pathRank = new int[this.MAX_LEVEL];
+    this.free = new int[this.MAX_LEVEL + 1];
+    Arrays.fill(this.free, NIL);
+
+    this.keys = new Object[INITIAL_CAPACITY];
+    this.heights = new byte[INITIAL_CAPACITY];
+    this.linkBase = new int[INITIAL_CAPACITY];
+    this.links = new int[2 * INITIAL_CAPACITY + this.MAX_LEVEL];
+    this.widths = new int[this.links.length];
+    this.nodeCount = 0;
+    this.linkCount = 0;
+
+    // The head gets every level, all of them leading to the end
+    int head = newNode(this.MAX_LEVEL, null);
+    for (int i = 0; i <= this.MAX_LEVEL; i++)
+      {
+        this.links[this.linkBase[head] + i] = NIL;
+        this.widths[this.linkBase[head] + i] = 1;
+      }//for
+  }//ArraySkipList(int, LevelGenerator)
+
+  // +-------------------------+-----------------------------------------
+  // | Internal Helper Methods |
+  // +-------------------------+
+
+  /**
+   * Get the value of a node.
+   */
+  @SuppressWarnings("unchecked")
+  T key(int node)
+  {
+    return (T) this.keys[node];
+  }//key(int)
+
+  /**
+   * Get the slot in links and widths that holds level i of a node.
+   */
+  int slot(int node, int i)
+  {
+    return this.linkBase[node] + i;
+  }//slot(int, int)
+
+  /**
+   * Find the last node before val at each level, recording those nodes
+   * in path and their positions in pathRank.
+   *
+   * @return the first node that is not smaller than val, or NIL if
+   *   there is none.
+   */
+  int findPath(T val)
+  {
+    int active = HEAD;
+    int position = 0;
+
+    for (int i = this.currentLevel; i >= 0; i--)
+      {
+        int s = this.linkBase[active] + i;
+        int next = this.links[s];
+        while ((next != NIL) && (key(next).compareTo(val) < 0))
+          {
+            position += this.widths[s];
+            active = next;
+            s = this.linkBase[active] + i;
+            next = this.links[s];
+          }//while
+        this.path[i] = active;
+        this.pathRank[i] = position;
+      }//for
+    return this.links[this.linkBase[active]];
+  }// findPath(T)
+
+  /**
+   * Get an id for a new node of the given level, reusing a removed node
+   * of that level if there is one, and growing the arrays if need be.
+   */
+  int newNode(int level, T val)
+  {
+    int node = this.free[level];
+    if (node != NIL)
+      {
+        this.free[level] = this.links[this.linkBase[node]];
+      }//if we can reuse a node
+    else
+      {
+        if (this.nodeCount == this.keys.length)
+          {
+            int capacity = 2 * this.keys.length;
+            this.keys = Arrays.copyOf(this.keys, capacity);
+            this.heights = Arrays.copyOf(this.heights, capacity);
+            this.linkBase = Arrays.copyOf(this.linkBase, capacity);
+          }//if we are out of ids
+        if (this.linkCount + level + 1 > this.links.length)
+          {
+            int capacity = 2 * this.links.length + level + 1;
+            this.links = Arrays.copyOf(this.links, capacity);
+            this.widths = Arrays.copyOf(this.widths, capacity);
+          }//if we are out of link slots
+        node = this.nodeCount++;
+        this.heights[node] = (byte) level;
+        this.linkBase[node] = this.linkCount;
+        this.linkCount += level + 1;
+      }//else we need a fresh node
+    this.keys[node] = val;
+    return node;
+  }//newNode(int, T)
+
+  /**
+   * Put a node that is no longer in the list on the free list for its
+   * level.
+   */
+  void freeNode(int node)
+  {
+    int level = this.heights[node];
+    this.keys[node] = null;
+    this.links[this.linkBase[node]] = this.free[level];
+    this.free[level] = node;
+  }//freeNode(int)
+
+  // +-----------------------+-------------------------------------------
+  // | Methods from Iterable |
+  // +-----------------------+
+
+  /**
+   * Return an iterator that steps through the values of the list from
+   * smallest to largest.
+   */
+  public Iterator<T> iterator()
+  {
+    return new Iterator<T>()
+      {
+        int cursor = HEAD;
+        int previous = HEAD;
+        int mods = ArraySkipList.this.mods;
+
+        void failFast()
+        {
+          if (this.mods != ArraySkipList.this.mods)
+            throw new ConcurrentModificationException();
+        }//failFast()
+
+        public boolean hasNext()
+        {
+          failFast();
+          return ArraySkipList.this.links[ArraySkipList.this.linkBase[this.cursor]] != NIL;
+        }//hasNext()
+
+        public T next()
+        {
+          if (!this.hasNext())
+            {
+              throw new NoSuchElementException();
+            }//if no next value
+          this.previous = this.cursor;
+          this.cursor =
+              ArraySkipList.this.links[ArraySkipList.this.linkBase[this.cursor]];
+          return key(this.cursor);
+        }//next()
+
+        public void remove()
+        {
+          failFast();
+          if (this.cursor == this.previous)
+            {
+              throw new IllegalStateException();
+            }//if there is nothing to remove
+          ArraySkipList.this.remove(key(this.cursor));
+          this.mods = ArraySkipList.this.mods;
+          this.cursor = this.previous;
+        }//remove()
+      };
+  } // iterator()
+
+  // +------------------------+------------------------------------------
+  // | Methods from SimpleSet |
+  // +------------------------+
+
+  /**
+   * Add a value to the set.
+   */
+  public void add(T val)
+  {
+    if (val == null)
+      {
+        return;
+      }//if val is null
+    int active = findPath(val);
+    if ((active != NIL) && (key(active).compareTo(val) == 0))
+      {
+        return;
+      }//if val is already there
+
+    int i;
+    int newLevel = this.levels.randomLevel(this.MAX_LEVEL);
+    if (newLevel > this.currentLevel)
+      {
+        for (i = this.currentLevel + 1; i <= newLevel; i++)
+          {
+            this.path[i] = HEAD;
+            this.pathRank[i] = 0;
+            this.widths[slot(HEAD, i)] = this.size + 1;
+          }//for
+        this.currentLevel = newLevel;
+      }//if new level greater than current list level
+
+    int node = newNode(newLevel, val);
+    int predecessor = this.pathRank[0];
+    for (i = 0; i <= newLevel; i++)
+      {
+        int before = predecessor - this.pathRank[i];
+        int from = slot(this.path[i], i);
+        int to = slot(node, i);
+        this.links[to] = this.links[from];
+        this.widths[to] = this.widths[from] - before;
+        this.links[from] = node;
+        this.widths[from] = before + 1;
+      }//for
+    for (i = newLevel + 1; i <= this.currentLevel; i++)
+      {
+        this.widths[slot(this.path[i], i)]++;
+      }//for
+    this.mods++;
+    this.size++;
+  } // add(T val)
+
+  /**
+   * Determine if the set contains a particular value.
+   */
+  public boolean contains(T val)
+  {
+    if (val == null)
+      {
+        return false;
+      }//if val is null
+    int active = HEAD;
+    for (int i = this.currentLevel; i >= 0; i--)
+      {
+        int next = this.links[this.linkBase[active] + i];
+        while ((next != NIL) && (key(next).compareTo(val) < 0))
+          {
+            active = next;
+            next = this.links[this.linkBase[active] + i];
+          }//while
+      }//for
+    active = this.links[this.linkBase[active]];
+    return (active != NIL) && (key(active).compareTo(val) == 0);
+  } // contains(T)
+
+  /**
+   * Remove an element from the set.
+   */
+  public void remove(T val)
+  {
+    if (val == null)
+      {
+        return;
+      }//if val is null
+    int active = findPath(val);
+    if ((active == NIL) || (key(active).compareTo(val) != 0))
+      {
+        return;
+      }//if val is not there
+
+    for (int i = 0; i <= this.currentLevel; i++)
+      {
+        int from = slot(this.path[i], i);
+        if (this.links[from] == active)
+          {
+            this.widths[from] += this.widths[slot(active, i)] - 1;
+            this.links[from] = this.links[slot(active, i)];
+          }//if the pointer leads to active
+        else
+          {
+            this.widths[from]--;
+          }//else the pointer skips over active
+      }//for
+    while (this.currentLevel > 0
+           && this.links[slot(HEAD, this.currentLevel)] == NIL)
+      {
+        this.currentLevel--;
+      }//while
+    freeNode(active);
+    this.mods++;
+    this.size--;
+  } // remove(T)
+
+  // +--------------------------+----------------------------------------
+  // | Methods from SemiIndexed |
+  // +--------------------------+
+
+  /**
+   * Get the element at index i.
+   *
+   * @throws IndexOutOfBoundsException
+   *   if the index is out of range (index < 0 || index >= length)
+   */
+  public T get(int i)
+  {
+    if ((i < 0) || (i >= this.size))
+      {
+        throw new IndexOutOfBoundsException();
+      }//check bounds
+
+    int current = HEAD;
+    int position = 0;
+    for (int level = this.currentLevel; level >= 0; level--)
+      {
+        int s = slot(current, level);
+        while (position + this.widths[s] <= i + 1)
+          {
+            position += this.widths[s];
+            current = this.links[s];
+            s = slot(current, level);
+          }//while
+      }//for
+    return key(current);
+  } // get(int)
+
+  /**
+   * Determine the number of elements in the collection.
+   */
+  public int length()
+  {
+    return this.size;
+  } // length()
+
+  // +-------------------------+-----------------------------------------
+  // | Methods from SortedList |
+  // +-------------------------+
+
+  /**
+   * Determine the number of elements that are strictly smaller than
+   * val.
+   */
+  public int rank(T val)
+  {
+    findPath(val);
+    return this.pathRank[0];
+  } // rank(T)
+} // class ArraySkipList<T>
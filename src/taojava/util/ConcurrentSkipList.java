@@ -0,0 +1,489 @@
+package taojava.util;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicMarkableReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free implementation of sorted lists, based on the skip list
+ * of Herlihy and Shavit.  Insertion links a node in with compare-and-set
+ * on each level, from the bottom up.  Removal first marks the node's
+ * forward pointers (logical deletion) and then unlinks it (physical
+ * deletion), either itself or with the help of later searches.
+ *
+ * contains never writes and never retries, so it is wait-free.
+ * Iterators are weakly consistent: they never throw
+ * ConcurrentModificationException, and they see every value that is
+ * present for the whole iteration, but may or may not see values that
+ * are added or removed while they run.  get and length are similarly
+ * approximate while other threads are modifying the list.
+ *
+ * @author Albert Owusu-Asare
+ */
+
+/*
+ * Citations:
+ *   Maurice Herlihy and Nir Shavit. The Art of Multiprocessor
+ *   Programming, Chapter 14 (LockFreeSkipList).
+ */
+public class ConcurrentSkipList<T extends Comparable<T>>
+    implements SortedList<T>
+{
+  // +--------+----------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The maximum number of levels in the list.
+   */
+  final int MAX_LEVEL;
+
+  /**
+   * Chooses the levels of new nodes.  Must be thread-safe.
+   */
+  final LevelGenerator levels;
+
+  /**
+   * The front of the list.  Compares smaller than every value.
+   */
+  final Node<T> head;
+
+  /**
+   * The end of the list.  Compares larger than every value.
+   */
+  final Node<T> tail;
+
+  /**
+   * The number of values in the list.  A LongAdder, rather than an
+   * AtomicInteger, so that the count does not become a point of
+   * contention between writers.
+   */
+  final LongAdder size = new LongAdder();
+
+  // +------------------+------------------------------------------------
+  // | Internal Classes |
+  // +------------------+
+
+  /**
+   * Nodes for concurrent skip lists.  The mark on each forward pointer
+   * tells whether the node has been logically removed.
+   */
+  static class Node<T>
+  {
+    /**
+     * The value stored in the node.
+     */
+    final T val;
+
+    /**
+     * Array of forward pointers, with their deletion marks.
+     */
+    final AtomicMarkableReference<Node<T>>[] forwardPointers;
+
+    /**
+     * The highest level at which this node appears.
+     */
+    final int topLevel;
+
+    /**
+     * Constructs a new node
+     * @param nodeLevel the highest level of the node
+     * @param data the data to be stored in the node.
+     */
+    @SuppressWarnings("unchecked")
+    Node(int nodeLevel, T data)
+    {
+      this.val = data;
+      this.topLevel = nodeLevel;
+      this.forwardPointers = new AtomicMarkableReference[nodeLevel + 1];
+      for (int i = 0; i <= nodeLevel; i++)
+        {
+          this.forwardPointers[i] =
+              new AtomicMarkableReference<Node<T>>(null, false);
+        }//for
+    }//Node(int, T)
+  } // class Node
+
+  // +--------------+----------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Constructs a new ConcurrentSkipList using the default maximum
+   * number of levels.
+   */
+  public ConcurrentSkipList()
+  {
+    this(20);
+  }//ConcurrentSkipList()
+
+  /**
+   * Constructs a new ConcurrentSkipList using a maximum number of levels.
+   * @param maxLevel the maximum level for the list
+   */
+  public ConcurrentSkipList(int maxLevel)
+  {
+    this(maxLevel, 0.5);
+  }//ConcurrentSkipList(int)
+
+  /**
+   * Constructs a new ConcurrentSkipList using a given probability and
+   * maximum length.
+   * @param maxLevel the maximum number of levels in the skip list
+   * @param probability the probability used in assigning random levels
+   */
+  public ConcurrentSkipList(int maxLevel, double probability)
+  {
+    this.MAX_LEVEL = maxLevel;
+    this.levels = LevelGenerator.forProbability(probability);
+    this.head = new Node<T>(this.MAX_LEVEL - 1, null);
+    this.tail = new Node<T>(this.MAX_LEVEL - 1, null);
+    for (int i = 0; i < this.MAX_LEVEL; i++)
+      {
+        this.head.forwardPointers[i].set(this.tail, false);
+      }//for
+  }//ConcurrentSkipList(int, double)
+
+  // +-------------------------+-----------------------------------------
+  // | Internal Helper Methods |
+  // +-------------------------+
+
+  /**
+   * Determines a random level for a node.
+   */
+  int randomLevel()
+  {
+    return this.levels.randomLevel(this.MAX_LEVEL);
+  }// randomLevel()
+
+  /**
+   * Determine whether node comes before val in the list.  The head
+   * comes before everything and the tail before nothing.
+   */
+  boolean before(Node<T> node, T val)
+  {
+    if (node == this.head)
+      return true;
+    if (node == this.tail)
+      return false;
+    return node.val.compareTo(val) < 0;
+  } // before(Node<T>, T)
+
+  /**
+   * Find the predecessors and successors of val at every level,
+   * physically removing any marked nodes along the way.
+   *
+   * @return true if an unmarked node holding val was found (it is then
+   *   succs[0]).
+   */
+  boolean find(T val, Node<T>[] preds, Node<T>[] succs)
+  {
+    boolean[] marked = { false };
+    Node<T> pred;
+    Node<T> curr;
+    Node<T> succ;
+
+    retry: while (true)
+      {
+        pred = this.head;
+        for (int i = this.MAX_LEVEL - 1; i >= 0; i--)
+          {
+            curr = pred.forwardPointers[i].getReference();
+            while (true)
+              {
+                // The tail's pointers are never marked, so this loop
+                // always stops there
+                succ = curr.forwardPointers[i].get(marked);
+                // Snip out marked nodes.  If someone else changed pred
+                // in the meantime, start over.
+                while (marked[0])
+                  {
+                    if (!pred.forwardPointers[i].compareAndSet(curr, succ,
+                                                                false, false))
+                      continue retry;
+                    curr = pred.forwardPointers[i].getReference();
+                    succ = curr.forwardPointers[i].get(marked);
+                  }//while curr is marked
+                if (before(curr, val))
+                  {
+                    pred = curr;
+                    curr = succ;
+                  }//if curr is still too small
+                else
+                  break;
+              }//while
+            preds[i] = pred;
+            succs[i] = curr;
+          }//for
+        return (succs[0] != this.tail)
+               && (succs[0].val.compareTo(val) == 0);
+      }//while
+  } // find(T, Node<T>[], Node<T>[])
+
+  // +-----------------------+-------------------------------------------
+  // | Methods from Iterable |
+  // +-----------------------+
+
+  /**
+   * Return a weakly consistent iterator that visits the values of the
+   * list from smallest to largest.  The iterator never throws
+   * ConcurrentModificationException.  Its remove method removes the
+   * value most recently returned by next.
+   */
+  public Iterator<T> iterator()
+  {
+    return new Iterator<T>()
+      {
+        // The next node to return, or the tail
+        Node<T> next = advance(ConcurrentSkipList.this.head);
+        // The last value returned by next
+        T last = null;
+
+        /**
+         * Find the first unmarked node after node.
+         */
+        Node<T> advance(Node<T> node)
+        {
+          boolean[] marked = { false };
+          Node<T> curr = node.forwardPointers[0].getReference();
+          while (curr != ConcurrentSkipList.this.tail)
+            {
+              curr.forwardPointers[0].get(marked);
+              if (!marked[0])
+                break;
+              curr = curr.forwardPointers[0].getReference();
+            }//while
+          return curr;
+        }//advance(Node<T>)
+
+        @Override
+        public boolean hasNext()
+        {
+          return this.next != ConcurrentSkipList.this.tail;
+        }//hasNext()
+
+        @Override
+        public T next()
+        {
+          if (!this.hasNext())
+            {
+              throw new NoSuchElementException();
+            }//if no next value
+          this.last = this.next.val;
+          this.next = advance(this.next);
+          return this.last;
+        }//next()
+
+        @Override
+        public void remove()
+        {
+          if (this.last == null)
+            {
+              throw new IllegalStateException();
+            }//if next has not been called
+          ConcurrentSkipList.this.remove(this.last);
+          this.last = null;
+        }//remove()
+      };
+  } // iterator()
+
+  // +------------------------+------------------------------------------
+  // | Methods from SimpleSet |
+  // +------------------------+
+
+  /**
+   * Add a value to the set.
+   *
+   * @post contains(val)
+   * @post For all lav != val, if contains(lav) held before the call
+   *   to add, contains(lav) continues to hold.
+   */
+  @SuppressWarnings("unchecked")
+  public void add(T val)
+  {
+    if (val == null)
+      {
+        return;
+      }//if
+
+    int topLevel = randomLevel();
+    Node<T>[] preds = new Node[this.MAX_LEVEL];
+    Node<T>[] succs = new Node[this.MAX_LEVEL];
+
+    while (true)
+      {
+        if (find(val, preds, succs))
+          {
+            return;
+          }//if val is already there
+
+        Node<T> node = new Node<T>(topLevel, val);
+        for (int i = 0; i <= topLevel; i++)
+          {
+            node.forwardPointers[i].set(succs[i], false);
+          }//for
+        // Linking at level 0 is what puts the value in the list
+        if (!preds[0].forwardPointers[0].compareAndSet(succs[0], node,
+                                                        false, false))
+          {
+            continue;
+          }//if someone else got there first
+        this.size.increment();
+
+        // Link the remaining levels, refreshing preds and succs as needed
+        for (int i = 1; i <= topLevel; i++)
+          {
+            while (true)
+              {
+                Node<T> succ = succs[i];
+                // If the node is already being removed, leave it to the
+                // remover to unlink
+                if (node.forwardPointers[i].isMarked())
+                  return;
+                Node<T> current = node.forwardPointers[i].getReference();
+                if (current != succ
+                    && !node.forwardPointers[i].compareAndSet(current, succ,
+                                                              false, false))
+                  continue;
+                if (preds[i].forwardPointers[i].compareAndSet(succ, node,
+                                                               false, false))
+                  break;
+                find(val, preds, succs);
+              }//while
+          }//for
+        return;
+      }//while
+  } // add(T val)
+
+  /**
+   * Determine if the set contains a particular value.  Never modifies
+   * the list and never restarts.
+   */
+  public boolean contains(T val)
+  {
+    if (val == null)
+      {
+        return false;
+      }//if
+
+    boolean[] marked = { false };
+    Node<T> pred = this.head;
+    Node<T> curr = null;
+    Node<T> succ;
+
+    for (int i = this.MAX_LEVEL - 1; i >= 0; i--)
+      {
+        curr = pred.forwardPointers[i].getReference();
+        while (true)
+          {
+            succ = curr.forwardPointers[i].get(marked);
+            // Step over marked nodes without unlinking them
+            while (marked[0])
+              {
+                curr = succ;
+                succ = curr.forwardPointers[i].get(marked);
+              }//while
+            if (before(curr, val))
+              {
+                pred = curr;
+                curr = succ;
+              }//if
+            else
+              break;
+          }//while
+      }//for
+    return (curr != this.tail) && (curr.val.compareTo(val) == 0);
+  } // contains(T)
+
+  /**
+   * Remove an element from the set.
+   *
+   * @post !contains(val)
+   * @post For all lav != val, if contains(lav) held before the call
+   *   to remove, contains(lav) continues to hold.
+   */
+  @SuppressWarnings("unchecked")
+  public void remove(T val)
+  {
+    if (val == null)
+      {
+        return;
+      }//if
+
+    Node<T>[] preds = new Node[this.MAX_LEVEL];
+    Node<T>[] succs = new Node[this.MAX_LEVEL];
+    boolean[] marked = { false };
+
+    if (!find(val, preds, succs))
+      {
+        return;
+      }//if val is not there
+
+    Node<T> victim = succs[0];
+    Node<T> succ;
+    // Mark the upper levels, top down
+    for (int i = victim.topLevel; i >= 1; i--)
+      {
+        succ = victim.forwardPointers[i].get(marked);
+        while (!marked[0])
+          {
+            victim.forwardPointers[i].compareAndSet(succ, succ, false, true);
+            succ = victim.forwardPointers[i].get(marked);
+          }//while
+      }//for
+    // Marking level 0 decides which thread removed the value
+    succ = victim.forwardPointers[0].get(marked);
+    while (true)
+      {
+        if (victim.forwardPointers[0].compareAndSet(succ, succ, false, true))
+          {
+            this.size.decrement();
+            // Let find do the physical removal
+            find(val, preds, succs);
+            return;
+          }//if we marked it
+        succ = victim.forwardPointers[0].get(marked);
+        if (marked[0])
+          {
+            return;
+          }//if someone else removed it
+      }//while
+  } // remove(T)
+
+  // +--------------------------+----------------------------------------
+  // | Methods from SemiIndexed |
+  // +--------------------------+
+
+  /**
+   * Get the element at index i.  Walks level 0, so takes O(i) steps.
+   *
+   * @throws IndexOutOfBoundsException
+   *   if the index is out of range (index < 0 || index >= length)
+   */
+  public T get(int i)
+  {
+    if (i < 0)
+      {
+        throw new IndexOutOfBoundsException();
+      }//check bounds
+    Iterator<T> it = this.iterator();
+    for (int counter = 0; counter < i && it.hasNext(); counter++)
+      {
+        it.next();
+      }//for
+    if (!it.hasNext())
+      {
+        throw new IndexOutOfBoundsException();
+      }//if we ran off the end
+    return it.next();
+  } // get(int)
+
+  /**
+   * Determine the number of elements in the collection.
+   */
+  public int length()
+  {
+    return this.size.intValue();
+  } // length()
+} // class ConcurrentSkipList<T>
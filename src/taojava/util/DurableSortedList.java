@@ -0,0 +1,685 @@
+package taojava.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+/**
+ * Sorted lists that survive crashes.  The list lives in a directory
+ * that holds a snapshot (see SkipListSnapshot) and a log.  Every add and
+ * remove is appended to the log before it changes the list; on opening,
+ * we map the snapshot and replay the log on top of it.  checkpoint
+ * writes a new snapshot and empties the log.
+ *
+ * How often the log is forced to disk is up to a SyncPolicy.  With
+ * SyncPolicy.EVERY_OP, an update does not return until its record is on
+ * disk, but threads that update at the same time share the work: the
+ * first to get to the disk forces the records of all of them at once
+ * ("group commit").
+ *
+ * Every log record is one byte for the kind of update, the value (in
+ * codec.width() bytes), and a CRC32 of the two.  Recovery stops at the
+ * first record that is incomplete or fails its check, which is where a
+ * crash interrupted the log, and cuts the log off there.
+ *
+ * If the log cannot be written, the records we were writing are lost,
+ * and later ones would leave a hole in the log.  So after a failure the
+ * list refuses to be updated: every later update, sync, checkpoint,
+ * and close reports the failure.
+ *
+ * The methods of the list may be called from several threads.
+ * Iterators are not thread-safe; hold the list's monitor while using
+ * one if other threads may update the list.
+ *
+ * @author Albert Owusu-Asare
+ */
+public class DurableSortedList<T extends Comparable<T>>
+    implements SortedList<T>, AutoCloseable
+{
+  // +-----------+-------------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The names of the files in the directory.
+   */
+  static final String SNAPSHOT = "snapshot";
+  static final String LOG = "log";
+
+  /**
+   * The kinds of log records.
+   */
+  static final byte ADD = 1;
+  static final byte REMOVE = 2;
+
+  /**
+   * With SyncPolicy.NONE, how many bytes of records we collect before
+   * handing them to the operating system.
+   */
+  static final int BATCH_SIZE = 1 << 16;
+
+  // +--------+----------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  //the directory that holds the snapshot and the log
+  Path dir;
+  //writes values to the log and the snapshot
+  KeyCodec<T> codec;
+  //when to force the log
+  SyncPolicy policy;
+  //the number of bytes per log record
+  int recordSize;
+
+  //the list itself: the last snapshot plus the updates since
+  MappedSortedList<T> slist;
+  //the log
+  FileChannel log;
+
+  //records that have not yet been written to the log, and an empty
+  //buffer to swap in for pending when we write them
+  ByteBuffer pending;
+  ByteBuffer spare;
+  //checks records
+  CRC32 crc;
+  //the number of records appended so far, and the number known to be
+  //on disk
+  long appended;
+  volatile long synced;
+  //held by the thread that writes and forces the log
+  Object syncLock;
+  //forces the log for SyncPolicy.interval
+  ScheduledExecutorService syncer;
+  //whether the list is closed
+  boolean closed;
+  //the first failure to write the log, or null if there has been none
+  IOException failure;
+
+  // +--------------+----------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Build a list that uses the files in dir.
+   */
+  DurableSortedList(Path dir, KeyCodec<T> codec, SyncPolicy policy)
+  {
+    this.dir = dir;
+    this.codec = codec;
+    this.policy = policy;
+    this.recordSize = 1 + codec.width() + 4;
+    this.pending = ByteBuffer.allocate(BATCH_SIZE);
+    this.spare = ByteBuffer.allocate(BATCH_SIZE);
+    this.crc = new CRC32();
+    this.appended = 0;
+    this.synced = 0;
+    this.syncLock = new Object();
+    this.closed = false;
+  } // DurableSortedList(Path, KeyCodec<T>, SyncPolicy)
+
+  // +----------------+--------------------------------------------------
+  // | Static Methods |
+  // +----------------+
+
+  /**
+   * Open the list stored in dir, creating the directory and an empty
+   * list if need be, and recover any updates in the log.
+   *
+   * @throws IOException
+   *   if the files cannot be read or written, or the snapshot is not
+   *   one of values that codec can read.
+   */
+  public static <T extends Comparable<T>> DurableSortedList<T>
+    open(Path dir, KeyCodec<T> codec, SyncPolicy policy)
+    throws IOException
+  {
+    Files.createDirectories(dir);
+    Path snapshot = dir.resolve(SNAPSHOT);
+    if (!Files.exists(snapshot))
+      {
+        SkipListSnapshot.write(new SkipList<T>(), codec, snapshot);
+      } // if there is no snapshot yet
+
+    DurableSortedList<T> list = new DurableSortedList<T>(dir, codec, policy);
+    list.slist = SkipListSnapshot.open(snapshot, codec);
+    list.log = FileChannel.open(dir.resolve(LOG), StandardOpenOption.CREATE,
+                                StandardOpenOption.READ,
+                                StandardOpenOption.WRITE);
+    list.replay();
+    if (policy.millis > 0)
+      {
+        list.syncer = Executors.newSingleThreadScheduledExecutor((r) -> {
+          Thread thread = new Thread(r, "DurableSortedList sync");
+          thread.setDaemon(true);
+          return thread;
+        });
+        list.syncer.scheduleWithFixedDelay(list::syncQuietly, policy.millis,
+                                           policy.millis,
+                                           TimeUnit.MILLISECONDS);
+      } // if we sync in the background
+    return list;
+  } // open(Path, KeyCodec<T>, SyncPolicy)
+
+  // +-------------------------+-----------------------------------------
+  // | Internal Helper Methods |
+  // +-------------------------+
+
+  /**
+   * Apply the complete, valid records of the log to slist, and cut off
+   * anything after them.
+   */
+  void replay()
+    throws IOException
+  {
+    ByteBuffer buf = ByteBuffer.allocate(this.recordSize * 4096);
+    long good = 0;
+    this.log.position(0);
+    records: while (this.log.read(buf) > 0)
+      {
+        buf.flip();
+        while (buf.remaining() >= this.recordSize)
+          {
+            int start = buf.position();
+            this.crc.reset();
+            this.crc.update(buf.array(), start, this.recordSize - 4);
+            int check = buf.getInt(start + this.recordSize - 4);
+            if ((int) this.crc.getValue() != check)
+              {
+                break records;
+              } // if the record is damaged
+            byte op = buf.get(start);
+            T val = this.codec.read(buf, start + 1);
+            if (op == ADD)
+              this.slist.add(val);
+            else if (op == REMOVE)
+              this.slist.remove(val);
+            else
+              break records;
+            buf.position(start + this.recordSize);
+            good += this.recordSize;
+          } // while we have a whole record
+        buf.compact();
+      } // while there is more of the log
+    this.log.truncate(good);
+    this.log.position(good);
+  } // replay()
+
+  /**
+   * Make sure the list is usable.  Must be called while holding the
+   * monitor.
+   */
+  void checkOpen()
+  {
+    if (this.closed)
+      {
+        throw new IllegalStateException("list is closed");
+      } // if closed
+    if (this.failure != null)
+      {
+        throw new UncheckedIOException(this.failure);
+      } // if the log failed
+  } // checkOpen()
+
+  /**
+   * Add a record to pending.  Must be called while holding the monitor.
+   *
+   * @return the number of records appended, including this one.
+   */
+  long append(byte op, T val)
+  {
+    if (this.pending.remaining() < this.recordSize)
+      {
+        ByteBuffer bigger = ByteBuffer.allocate(2 * this.pending.capacity());
+        this.pending.flip();
+        bigger.put(this.pending);
+        this.pending = bigger;
+      } // if pending is full
+    int start = this.pending.position();
+    this.pending.put(start, op);
+    this.codec.write(this.pending, start + 1, val);
+    this.crc.reset();
+    this.crc.update(this.pending.array(), start, this.recordSize - 4);
+    this.pending.putInt(start + this.recordSize - 4,
+                        (int) this.crc.getValue());
+    this.pending.position(start + this.recordSize);
+    return ++this.appended;
+  } // append(byte, T)
+
+  /**
+   * Write the pending records to the log and, if force is set, force
+   * them to disk, unless another thread has already done so for the
+   * first upTo records.
+   *
+   * @throws IOException
+   *   if the log could not be written, now or earlier.
+   */
+  void sync(long upTo, boolean force)
+    throws IOException
+  {
+    synchronized (this.syncLock)
+      {
+        if (this.synced >= upTo)
+          {
+            return;
+          } // if another thread did the work for us
+        ByteBuffer out;
+        long count;
+        synchronized (this)
+          {
+            if (this.failure != null)
+              {
+                throw this.failure;
+              } // if the log has a hole in it
+            out = this.pending;
+            count = this.appended;
+            this.pending = this.spare;
+          } // synchronized
+        try
+          {
+            out.flip();
+            while (out.hasRemaining())
+              this.log.write(out);
+            if (force)
+              this.log.force(false);
+          } // try
+        catch (IOException e)
+          {
+            synchronized (this)
+              {
+                this.failure = e;
+              } // synchronized
+            throw e;
+          } // catch
+        out.clear();
+        this.spare = out;
+        this.synced = count;
+      } // synchronized
+  } // sync(long, boolean)
+
+  /**
+   * Write and force every record so far, for the background syncer.
+   */
+  void syncQuietly()
+  {
+    try
+      {
+        sync(Long.MAX_VALUE, true);
+      } // try
+    catch (IOException e)
+      {
+        // sync kept the failure, so the next update or close reports it
+      } // catch
+  } // syncQuietly()
+
+  /**
+   * Log an update, apply it, and wait for the log as the policy says.
+   */
+  void update(byte op, T val)
+  {
+    if (val == null)
+      {
+        return;
+      } // if val is null
+    long seq;
+    boolean full;
+    synchronized (this)
+      {
+        checkOpen();
+        seq = append(op, val);
+        if (op == ADD)
+          this.slist.add(val);
+        else
+          this.slist.remove(val);
+        full = this.pending.position() >= BATCH_SIZE;
+      } // synchronized
+    try
+      {
+        if (this.policy.millis == 0)
+          sync(seq, true);
+        else if (full)
+          sync(seq, false);
+      } // try
+    catch (IOException e)
+      {
+        throw new UncheckedIOException(e);
+      } // catch
+  } // update(byte, T)
+
+  // +-----------------------+-------------------------------------------
+  // | Methods from Iterable |
+  // +-----------------------+
+
+  /**
+   * Return an iterator that steps through the values of the list from
+   * smallest to largest.  Its remove method is logged like any other.
+   */
+  public Iterator<T> iterator()
+  {
+    final Iterator<T> it;
+    synchronized (this)
+      {
+        it = this.slist.iterator();
+      } // synchronized
+    return new Iterator<T>()
+      {
+        T last = null;
+
+        public boolean hasNext()
+        {
+          return it.hasNext();
+        } // hasNext()
+
+        public T next()
+        {
+          this.last = it.next();
+          return this.last;
+        } // next()
+
+        public void remove()
+        {
+          if (this.last == null)
+            {
+              throw new IllegalStateException();
+            } // if there is nothing to remove
+          long seq;
+          synchronized (DurableSortedList.this)
+            {
+              checkOpen();
+              it.remove();
+              seq = append(REMOVE, this.last);
+            } // synchronized
+          this.last = null;
+          try
+            {
+              if (DurableSortedList.this.policy.millis == 0)
+                sync(seq, true);
+            } // try
+          catch (IOException e)
+            {
+              throw new UncheckedIOException(e);
+            } // catch
+        } // remove()
+      };
+  } // iterator()
+
+  // +------------------------+------------------------------------------
+  // | Methods from SimpleSet |
+  // +------------------------+
+
+  /**
+   * Add a value to the set.
+   *
+   * @throws UncheckedIOException
+   *   if the update could not be logged.
+   */
+  public void add(T val)
+  {
+    update(ADD, val);
+  } // add(T)
+
+  /**
+   * Determine if the set contains a particular value.
+   */
+  public synchronized boolean contains(T val)
+  {
+    return this.slist.contains(val);
+  } // contains(T)
+
+  /**
+   * Remove an element from the set.
+   *
+   * @throws UncheckedIOException
+   *   if the update could not be logged.
+   */
+  public void remove(T val)
+  {
+    update(REMOVE, val);
+  } // remove(T)
+
+  // +--------------------------+----------------------------------------
+  // | Methods from SemiIndexed |
+  // +--------------------------+
+
+  /**
+   * Get the element at index i.
+   *
+   * @throws IndexOutOfBoundsException
+   *   if the index is out of range (index < 0 || index >= length)
+   */
+  public synchronized T get(int i)
+  {
+    return this.slist.get(i);
+  } // get(int)
+
+  /**
+   * Determine the number of elements in the collection.
+   */
+  public synchronized int length()
+  {
+    return this.slist.length();
+  } // length()
+
+  // +-------------------------+-----------------------------------------
+  // | Methods from SortedList |
+  // +-------------------------+
+
+  /**
+   * Determine the number of elements that are strictly smaller than
+   * val.
+   */
+  public synchronized int rank(T val)
+  {
+    return this.slist.rank(val);
+  } // rank(T)
+
+  /**
+   * Remove every element for which filter holds.  Each removal is
+   * logged, but with SyncPolicy.EVERY_OP we force the log only once,
+   * at the end.
+   *
+   * @throws UncheckedIOException
+   *   if the removals could not be logged.
+   */
+  public boolean removeIf(Predicate<? super T> filter)
+  {
+    long seq = 0;
+    synchronized (this)
+      {
+        checkOpen();
+        Iterator<T> it = this.slist.iterator();
+        while (it.hasNext())
+          {
+            T val = it.next();
+            if (filter.test(val))
+              {
+                seq = append(REMOVE, val);
+                it.remove();
+              } // if we remove val
+          } // while
+      } // synchronized
+    try
+      {
+        if ((seq > 0) && (this.policy.millis == 0))
+          sync(seq, true);
+      } // try
+    catch (IOException e)
+      {
+        throw new UncheckedIOException(e);
+      } // catch
+    return seq > 0;
+  } // removeIf(Predicate<? super T>)
+
+  /**
+   * Get the smallest element that is at least val.
+   */
+  public synchronized T ceiling(T val)
+  {
+    return this.slist.ceiling(val);
+  } // ceiling(T)
+
+  /**
+   * Get the smallest element that is larger than val.
+   */
+  public synchronized T higher(T val)
+  {
+    return this.slist.higher(val);
+  } // higher(T)
+
+  /**
+   * Get the largest element that is at most val.
+   */
+  public synchronized T floor(T val)
+  {
+    return this.slist.floor(val);
+  } // floor(T)
+
+  /**
+   * Get the largest element that is smaller than val.
+   */
+  public synchronized T lower(T val)
+  {
+    return this.slist.lower(val);
+  } // lower(T)
+
+  /**
+   * Get the smallest element.
+   */
+  public synchronized T first()
+  {
+    return this.slist.first();
+  } // first()
+
+  /**
+   * Get the largest element.
+   */
+  public synchronized T last()
+  {
+    return this.slist.last();
+  } // last()
+
+  /**
+   * Remove the smallest element, logging the removal like any other.
+   *
+   * @return the element, or null if the list is empty.
+   * @throws UncheckedIOException
+   *   if the removal could not be logged.
+   */
+  public T pollFirst()
+  {
+    T result;
+    long seq;
+    boolean full;
+    synchronized (this)
+      {
+        checkOpen();
+        if (this.slist.length() == 0)
+          return null;
+        result = this.slist.first();
+        seq = append(REMOVE, result);
+        this.slist.remove(result);
+        full = this.pending.position() >= BATCH_SIZE;
+      } // synchronized
+    try
+      {
+        if (this.policy.millis == 0)
+          sync(seq, true);
+        else if (full)
+          sync(seq, false);
+      } // try
+    catch (IOException e)
+      {
+        throw new UncheckedIOException(e);
+      } // catch
+    return result;
+  } // pollFirst()
+
+  // +---------------+---------------------------------------------------
+  // | Other Methods |
+  // +---------------+
+
+  /**
+   * Write a new snapshot that includes every update so far, and empty
+   * the log.  Updates wait while we write the snapshot.  A crash part
+   * way through is harmless: the log only holds updates that the new
+   * snapshot (if it made it to disk) already has, and replaying them
+   * changes nothing.
+   */
+  public void checkpoint()
+    throws IOException
+  {
+    synchronized (this.syncLock)
+      {
+        synchronized (this)
+          {
+            checkOpen();
+            Path snapshot = this.dir.resolve(SNAPSHOT);
+            // write forces the snapshot and its directory entry, so we
+            // only empty the log once the snapshot is sure to survive
+            SkipListSnapshot.write(this.slist, this.codec, snapshot);
+            this.slist.close();
+            this.slist = SkipListSnapshot.open(snapshot, this.codec);
+            this.pending.clear();
+            this.log.truncate(0);
+            this.log.position(0);
+            this.log.force(true);
+            this.synced = this.appended;
+          } // synchronized
+      } // synchronized
+  } // checkpoint()
+
+  /**
+   * Force every update to disk and close the files.  Closing a list
+   * that is already closed does nothing.
+   */
+  public void close()
+    throws IOException
+  {
+    if (this.syncer != null)
+      {
+        // Let a sync in progress finish; interrupting it would close
+        // the log under it
+        this.syncer.shutdown();
+        try
+          {
+            this.syncer.awaitTermination(1, TimeUnit.MINUTES);
+          } // try
+        catch (InterruptedException e)
+          {
+            Thread.currentThread().interrupt();
+          } // catch
+      } // if we sync in the background
+    synchronized (this.syncLock)
+      {
+        synchronized (this)
+          {
+            if (this.closed)
+              {
+                return;
+              } // if already closed
+            this.closed = true;
+          } // synchronized
+        try
+          {
+            sync(Long.MAX_VALUE, true);
+          } // try
+        finally
+          {
+            synchronized (this)
+              {
+                this.log.close();
+                this.slist.close();
+              } // synchronized
+          } // finally
+      } // synchronized
+  } // close()
+} // class DurableSortedList<T>
@@ -0,0 +1,344 @@
+package taojava.util;
+
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Skip lists of int values.  Works like SkipList<Integer>, but
+ * stores the values unboxed in the nodes, so that searches compare raw
+ * values instead of calling compareTo, and nothing is boxed on the way
+ * in or out.
+ *
+ * @author Albert Owusu-Asare
+ */
+public class IntSkipList
+    implements Iterable<Integer>
+{
+  // +--------+----------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  //the maximum level of the list
+  int MAX_LEVEL;
+  //the  current level number of the list
+  int currentLevel;
+  //size of the list
+  int size;
+  //tracks modifications to the list
+  int mods = 0;
+  //chooses the levels of new nodes
+  LevelGenerator levels;
+
+  //the front and the end of the list.  Neither holds a value; we
+  //recognize them by identity.
+  Node head;
+  Node tail;
+
+  //scratch space for the last node before a value at each level, and
+  //the level-0 positions of those nodes
+  Node[] path;
+  int[] pathRank;
+
+  // +------------------+------------------------------------------------
+  // | Internal Classes |
+  // +------------------+
+
+  /**
+   * Nodes for int skip lists.
+   */
+  static class Node
+  {
+    /**
+     * The value stored in the node.
+     */
+    int val;
+
+    /**
+     *  Array of forward pointers
+     */
+    Node[] forwardPointers;
+
+    /**
+     * The number of level-0 steps each forward pointer skips.
+     */
+    int[] widths;
+
+    /**
+     * Constructs a new node
+     * @param nodeLevel the level this node is at.
+     * @param data the data to be stored in the node.
+     */
+    Node(int nodeLevel, int data)
+    {
+      this.val = data;
+      this.forwardPointers = new Node[nodeLevel + 1];
+      this.widths = new int[nodeLevel + 1];
+    }//Node(int, int)
+  } // class Node
+
+  // +--------------+----------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Constructs a new IntSkipList using default maximum number of levels.
+   */
+  public IntSkipList()
+  {
+    this(20);
+  }//IntSkipList()
+
+  /**
+   * Constructs a new IntSkipList using a maximum number of levels.
+   * @param maxLevel the maximum level for the list
+   */
+  public IntSkipList(int maxLevel)
+  {
+    this(maxLevel, new XorShiftLevelGenerator());
+  }//IntSkipList(int)
+
+  /**
+   * Constructs a new IntSkipList using a given level generator and maximum
+   * length.
+   * @param maxLevel the maximum number of levels in the skip List
+   * @param levels chooses the levels of new nodes
+   */
+  public IntSkipList(int maxLevel, LevelGenerator levels)
+  {
+    this.MAX_LEVEL = maxLevel;
+    this.levels = levels;
+    this.currentLevel = 0;
+    this.path = new Node[this.MAX_LEVEL];
+    this.pathRank = new int[this.MAX_LEVEL];
+    this.head = new Node(this.MAX_LEVEL, 0);
+    this.tail = new Node(this.MAX_LEVEL, 0);
+    for (int i = 0; i < this.MAX_LEVEL; i++)
+      {
+        this.head.forwardPointers[i] = this.tail;
+        this.head.widths[i] = 1;
+      }//for
+  }//IntSkipList(int, LevelGenerator)
+
+  // +-------------------------+-----------------------------------------
+  // | Internal Helper Methods |
+  // +-------------------------+
+
+  /**
+   * Find the last node before val at each level, recording those nodes
+   * in path and their positions in pathRank.
+   *
+   * @return the first node that is not smaller than val.
+   */
+  Node findPath(int val)
+  {
+    Node active = this.head;
+    int position = 0;
+
+    for (int i = this.currentLevel; i >= 0; i--)
+      {
+        while ((active.forwardPointers[i] != this.tail)
+               && (active.forwardPointers[i].val < val))
+          {
+            position += active.widths[i];
+            active = active.forwardPointers[i];
+          }//while
+        this.path[i] = active;
+        this.pathRank[i] = position;
+      }//for
+    return active.forwardPointers[0];
+  }// findPath(int)
+
+  // +-----------------------+-------------------------------------------
+  // | Methods from Iterable |
+  // +-----------------------+
+
+  /**
+   * Return an iterator that visits the values of the list from smallest
+   * to largest, without boxing them (as long as you call nextInt).
+   */
+  public PrimitiveIterator.OfInt iterator()
+  {
+    return new PrimitiveIterator.OfInt()
+      {
+        Node cursor = IntSkipList.this.head;
+        Node previous = IntSkipList.this.head;
+        int mods = IntSkipList.this.mods;
+
+        void failFast()
+        {
+          if (this.mods != IntSkipList.this.mods)
+            throw new ConcurrentModificationException();
+        }//failFast()
+
+        public boolean hasNext()
+        {
+          failFast();
+          return this.cursor.forwardPointers[0] != IntSkipList.this.tail;
+        }//hasNext()
+
+        public int nextInt()
+        {
+          if (!this.hasNext())
+            {
+              throw new NoSuchElementException();
+            }//if no next value
+          this.previous = this.cursor;
+          this.cursor = this.cursor.forwardPointers[0];
+          return this.cursor.val;
+        }//nextInt()
+
+        public void remove()
+        {
+          failFast();
+          if (this.cursor == this.previous)
+            {
+              throw new IllegalStateException();
+            }//if there is nothing to remove
+          IntSkipList.this.remove(this.cursor.val);
+          this.mods = IntSkipList.this.mods;
+          this.cursor = this.previous;
+        }//remove()
+      };
+  } // iterator()
+
+  // +----------------------+--------------------------------------------
+  // | Set and List Methods |
+  // +----------------------+
+
+  /**
+   * Add a value to the set.
+   */
+  public void add(int val)
+  {
+    Node active = findPath(val);
+    if ((active != this.tail) && (active.val == val))
+      {
+        return;
+      }//if val is already there
+
+    int i;
+    int newLevel = this.levels.randomLevel(this.MAX_LEVEL);
+    if (newLevel > this.currentLevel)
+      {
+        for (i = this.currentLevel + 1; i <= newLevel; i++)
+          {
+            this.path[i] = this.head;
+            this.pathRank[i] = 0;
+            this.head.widths[i] = this.size + 1;
+          }//for
+        this.currentLevel = newLevel;
+      }//if new level greater than current list level
+
+    Node node = new Node(newLevel, val);
+    int predecessor = this.pathRank[0];
+    for (i = 0; i <= newLevel; i++)
+      {
+        int before = predecessor - this.pathRank[i];
+        node.forwardPointers[i] = this.path[i].forwardPointers[i];
+        node.widths[i] = this.path[i].widths[i] - before;
+        this.path[i].forwardPointers[i] = node;
+        this.path[i].widths[i] = before + 1;
+      }//for
+    for (i = newLevel + 1; i <= this.currentLevel; i++)
+      {
+        this.path[i].widths[i]++;
+      }//for
+    this.mods++;
+    this.size++;
+  } // add(int)
+
+  /**
+   * Determine if the set contains a particular value.
+   */
+  public boolean contains(int val)
+  {
+    Node active = this.head;
+    for (int i = this.currentLevel; i >= 0; i--)
+      {
+        while ((active.forwardPointers[i] != this.tail)
+               && (active.forwardPointers[i].val < val))
+          {
+            active = active.forwardPointers[i];
+          }//while
+      }//for
+    active = active.forwardPointers[0];
+    return (active != this.tail) && (active.val == val);
+  } // contains(int)
+
+  /**
+   * Remove an element from the set.
+   */
+  public void remove(int val)
+  {
+    Node active = findPath(val);
+    if ((active == this.tail) || (active.val != val))
+      {
+        return;
+      }//if val is not there
+
+    for (int i = 0; i <= this.currentLevel; i++)
+      {
+        if (this.path[i].forwardPointers[i] == active)
+          {
+            this.path[i].widths[i] += active.widths[i] - 1;
+            this.path[i].forwardPointers[i] = active.forwardPointers[i];
+          }//if the pointer leads to active
+        else
+          {
+            this.path[i].widths[i]--;
+          }//else the pointer skips over active
+      }//for
+    while (this.currentLevel > 0
+           && this.head.forwardPointers[this.currentLevel] == this.tail)
+      {
+        this.currentLevel--;
+      }//while
+    this.mods++;
+    this.size--;
+  } // remove(int)
+
+  /**
+   * Get the element at index i.
+   *
+   * @throws IndexOutOfBoundsException
+   *   if the index is out of range (index < 0 || index >= length)
+   */
+  public int get(int i)
+  {
+    if ((i < 0) || (i >= this.size))
+      {
+        throw new IndexOutOfBoundsException();
+      }//check bounds
+
+    Node current = this.head;
+    int position = 0;
+    for (int level = this.currentLevel; level >= 0; level--)
+      {
+        while (position + current.widths[level] <= i + 1)
+          {
+            position += current.widths[level];
+            current = current.forwardPointers[level];
+          }//while
+      }//for
+    return current.val;
+  } // get(int)
+
+  /**
+   * Determine the number of elements in the collection.
+   */
+  public int length()
+  {
+    return this.size;
+  } // length()
+
+  /**
+   * Determine the number of elements that are strictly smaller than
+   * val.
+   */
+  public int rank(int val)
+  {
+    findPath(val);
+    return this.pathRank[0];
+  } // rank(int)
+} // class IntSkipList
@@ -0,0 +1,69 @@
+package taojava.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Ways to store values in a fixed number of bytes, so that sorted lists
+ * of them can be written to files and read back in place.
+ *
+ * @author Albert Owusu-Asare
+ */
+public interface KeyCodec<T>
+{
+  /**
+   * Store ints in four bytes.
+   */
+  public static final KeyCodec<Integer> INTEGERS = new KeyCodec<Integer>()
+    {
+      public int width()
+      {
+        return 4;
+      } // width()
+
+      public Integer read(ByteBuffer buf, int offset)
+      {
+        return buf.getInt(offset);
+      } // read(ByteBuffer, int)
+
+      public void write(ByteBuffer buf, int offset, Integer val)
+      {
+        buf.putInt(offset, val);
+      } // write(ByteBuffer, int, Integer)
+    }; // INTEGERS
+
+  /**
+   * Store longs in eight bytes.
+   */
+  public static final KeyCodec<Long> LONGS = new KeyCodec<Long>()
+    {
+      public int width()
+      {
+        return 8;
+      } // width()
+
+      public Long read(ByteBuffer buf, int offset)
+      {
+        return buf.getLong(offset);
+      } // read(ByteBuffer, int)
+
+      public void write(ByteBuffer buf, int offset, Long val)
+      {
+        buf.putLong(offset, val);
+      } // write(ByteBuffer, int, Long)
+    }; // LONGS
+
+  /**
+   * Determine how many bytes each value takes.
+   */
+  public int width();
+
+  /**
+   * Read the value that starts at offset in buf.
+   */
+  public T read(ByteBuffer buf, int offset);
+
+  /**
+   * Write val into buf, starting at offset.
+   */
+  public void write(ByteBuffer buf, int offset, T val);
+} // interface KeyCodec<T>
@@ -0,0 +1,37 @@
+package taojava.util;
+
+/**
+ * Strategies for choosing the levels of new skip list nodes.  A level
+ * is chosen so that each node reaches level i + 1 with a fixed
+ * probability, given that it reaches level i.
+ *
+ * @author Albert Owusu-Asare
+ */
+public interface LevelGenerator
+{
+  /**
+   * Choose a level for a new node.
+   *
+   * @return a level between 0 and maxLevel - 1, inclusive.
+   */
+  public int randomLevel(int maxLevel);
+
+  /**
+   * Determine the probability that a node at one level also reaches
+   * the next.
+   */
+  public double probability();
+
+  /**
+   * Get a generator suitable for the given probability.  Powers of
+   * one half get a fast, thread-safe XorShiftLevelGenerator; anything
+   * else gets a RandomLevelGenerator.
+   */
+  public static LevelGenerator forProbability(double probability)
+  {
+    if (XorShiftLevelGenerator.bitsPerLevel(probability) > 0)
+      return new XorShiftLevelGenerator(probability);
+    else
+      return new RandomLevelGenerator(probability);
+  } // forProbability(double)
+} // interface LevelGenerator
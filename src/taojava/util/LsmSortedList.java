@@ -0,0 +1,780 @@
+package taojava.util;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sorted lists stored as a log-structured merge tree.  Updates go to an
+ * in-memory skip list, the "memtable".  Once the memtable holds enough
+ * values, it is frozen and a background thread writes it to a pair of
+ * snapshot files (see SkipListSnapshot), a "run".  When there are too
+ * many runs, the same thread merges them all into one.
+ *
+ * Every level (memtable, frozen memtable, or run) keeps the values it
+ * has seen added in one list and those it has seen removed in another,
+ * since a removal has to hide the value in older levels.  A lookup asks
+ * the levels from newest to oldest and believes the first that knows
+ * the value.  Iteration merges all the levels at once.
+ *
+ * Values in the memtable are lost if the process dies before they are
+ * flushed; close flushes them.  Since the levels overlap, length, get,
+ * and rank have to merge the levels and take time linear in the size
+ * of the list.
+ *
+ * The methods of the list may be called from several threads.
+ * Iterators work from the state of the list when they were made, so
+ * they neither fail fast nor need locking, but they must not be used
+ * once the list is closed.
+ *
+ * @author Albert Owusu-Asare
+ */
+public class LsmSortedList<T extends Comparable<T>>
+    implements SortedList<T>, AutoCloseable
+{
+  // +-----------+-------------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The number of values a memtable holds before we freeze it, by
+   * default.
+   */
+  public static final int DEFAULT_THRESHOLD = 1 << 16;
+
+  /**
+   * The number of runs that makes us compact, by default.
+   */
+  public static final int DEFAULT_MAX_RUNS = 4;
+
+  // +--------+----------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  //the directory that holds the runs
+  Path dir;
+  //writes values to the runs
+  KeyCodec<T> codec;
+  //the number of values that makes us freeze the memtable
+  int threshold;
+  //the number of runs that makes us compact
+  int maxRuns;
+
+  //the level that takes updates
+  Level<T> memtable;
+  //memtables waiting to be written, newest first
+  ArrayList<Level<T>> frozen;
+  //the runs on disk, newest first
+  ArrayList<Run<T>> runs;
+  //the id of the next run we write
+  long nextId;
+
+  //writes and compacts runs
+  ExecutorService background;
+  //the first problem the background thread ran into
+  IOException failure;
+  //whether the list is closed
+  boolean closed;
+
+  // +------------------+------------------------------------------------
+  // | Internal Classes |
+  // +------------------+
+
+  /**
+   * One level of the tree.  live and dead never share a value.
+   */
+  static class Level<T extends Comparable<T>>
+  {
+    /**
+     * The values added at this level.
+     */
+    SortedList<T> live;
+
+    /**
+     * The values removed at this level.
+     */
+    SortedList<T> dead;
+
+    Level(SortedList<T> live, SortedList<T> dead)
+    {
+      this.live = live;
+      this.dead = dead;
+    } // Level(SortedList<T>, SortedList<T>)
+
+    /**
+     * Determine whether this level holds val.
+     *
+     * @return TRUE if val was added here, FALSE if it was removed here,
+     *   and null if this level does not know.
+     */
+    Boolean lookup(T val)
+    {
+      if (this.live.contains(val))
+        return Boolean.TRUE;
+      if (this.dead.contains(val))
+        return Boolean.FALSE;
+      return null;
+    } // lookup(T)
+
+    /**
+     * Determine how many values this level knows about.
+     */
+    int entries()
+    {
+      return this.live.length() + this.dead.length();
+    } // entries()
+  } // class Level<T>
+
+  /**
+   * Levels that are on disk.
+   */
+  static class Run<T extends Comparable<T>>
+      extends Level<T>
+  {
+    /**
+     * The place of the run: runs with larger ids are newer.
+     */
+    long id;
+
+    /**
+     * How many times the run has been rewritten by compaction.
+     */
+    int gen;
+
+    Run(long id, int gen, MappedSortedList<T> live, MappedSortedList<T> dead)
+    {
+      super(live, dead);
+      this.id = id;
+      this.gen = gen;
+    } // Run(long, int, MappedSortedList<T>, MappedSortedList<T>)
+  } // class Run<T>
+
+  /**
+   * The values of one level, in order, each marked as live or dead.
+   */
+  static class Source<T extends Comparable<T>>
+  {
+    Iterator<T> live;
+    Iterator<T> dead;
+    // The next value of each, or null if there are no more
+    T nextLive;
+    T nextDead;
+
+    Source(Level<T> level)
+    {
+      this.live = level.live.iterator();
+      this.dead = level.dead.iterator();
+      this.nextLive = step(this.live);
+      this.nextDead = step(this.dead);
+    } // Source(Level<T>)
+
+    static <T> T step(Iterator<T> it)
+    {
+      return it.hasNext() ? it.next() : null;
+    } // step(Iterator<T>)
+
+    /**
+     * Determine whether the next value is live (as opposed to dead).
+     */
+    boolean isLive()
+    {
+      return (this.nextDead == null)
+             || ((this.nextLive != null)
+                 && (this.nextLive.compareTo(this.nextDead) < 0));
+    } // isLive()
+
+    /**
+     * Get the next value, or null if there are no more.
+     */
+    T key()
+    {
+      return isLive() ? this.nextLive : this.nextDead;
+    } // key()
+
+    /**
+     * Move past the next value.
+     */
+    void advance()
+    {
+      if (isLive())
+        this.nextLive = step(this.live);
+      else
+        this.nextDead = step(this.dead);
+    } // advance()
+  } // class Source<T>
+
+  /**
+   * Iterators over the values that are live in a stack of levels.
+   */
+  static class Merge<T extends Comparable<T>>
+      implements Iterator<T>
+  {
+    // The levels, newest first
+    ArrayList<Source<T>> sources;
+    // The next live value, or null if there are no more
+    T next;
+
+    Merge(ArrayList<Level<T>> levels)
+    {
+      this.sources = new ArrayList<Source<T>>();
+      for (Level<T> level : levels)
+        this.sources.add(new Source<T>(level));
+      this.next = find();
+    } // Merge(ArrayList<Level<T>>)
+
+    /**
+     * Find the next value that the newest level to know it says is
+     * live.
+     */
+    T find()
+    {
+      while (true)
+        {
+          Source<T> newest = null;
+          T smallest = null;
+          for (Source<T> source : this.sources)
+            {
+              T key = source.key();
+              if ((key != null)
+                  && ((smallest == null) || (key.compareTo(smallest) < 0)))
+                {
+                  smallest = key;
+                  newest = source;
+                } // if key comes first
+            } // for
+          if (smallest == null)
+            return null;
+          boolean live = newest.isLive();
+          for (Source<T> source : this.sources)
+            {
+              T key = source.key();
+              if ((key != null) && (key.compareTo(smallest) == 0))
+                source.advance();
+            } // for
+          if (live)
+            return smallest;
+        } // while
+    } // find()
+
+    public boolean hasNext()
+    {
+      return this.next != null;
+    } // hasNext()
+
+    public T next()
+    {
+      if (this.next == null)
+        throw new NoSuchElementException();
+      T result = this.next;
+      this.next = find();
+      return result;
+    } // next()
+  } // class Merge<T>
+
+  // +--------------+----------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Build an empty list that keeps its runs in dir.
+   */
+  LsmSortedList(Path dir, KeyCodec<T> codec, int threshold, int maxRuns)
+  {
+    this.dir = dir;
+    this.codec = codec;
+    this.threshold = threshold;
+    this.maxRuns = maxRuns;
+    this.memtable = newLevel();
+    this.frozen = new ArrayList<Level<T>>();
+    this.runs = new ArrayList<Run<T>>();
+    this.nextId = 0;
+    this.background = Executors.newSingleThreadExecutor((r) -> {
+      Thread thread = new Thread(r, "LsmSortedList flush");
+      thread.setDaemon(true);
+      return thread;
+    });
+  } // LsmSortedList(Path, KeyCodec<T>, int, int)
+
+  // +----------------+--------------------------------------------------
+  // | Static Methods |
+  // +----------------+
+
+  /**
+   * Open the list whose runs are in dir, using the default memtable size
+   * and number of runs.
+   */
+  public static <T extends Comparable<T>> LsmSortedList<T>
+    open(Path dir, KeyCodec<T> codec)
+    throws IOException
+  {
+    return open(dir, codec, DEFAULT_THRESHOLD, DEFAULT_MAX_RUNS);
+  } // open(Path, KeyCodec<T>)
+
+  /**
+   * Open the list whose runs are in dir, creating the directory if need
+   * be.  The memtable is frozen once it knows threshold values, and the
+   * runs are compacted once there are more than maxRuns of them.
+   *
+   * @throws IOException
+   *   if the runs cannot be read.
+   */
+  public static <T extends Comparable<T>> LsmSortedList<T>
+    open(Path dir, KeyCodec<T> codec, int threshold, int maxRuns)
+    throws IOException
+  {
+    if ((threshold < 1) || (maxRuns < 1))
+      {
+        throw new IllegalArgumentException("Invalid threshold or run count");
+      } // if the sizes make no sense
+    Files.createDirectories(dir);
+    LsmSortedList<T> list =
+        new LsmSortedList<T>(dir, codec, threshold, maxRuns);
+
+    // Find the newest generation of every run that has both files
+    ArrayList<long[]> found = new ArrayList<long[]>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "run-*"))
+      {
+        for (Path file : files)
+          {
+            String[] parts = file.getFileName().toString().split("[-.]");
+            if ((parts.length != 4) || !parts[3].equals("live"))
+              continue;
+            long id = Long.parseLong(parts[1]);
+            int gen = Integer.parseInt(parts[2]);
+            if (Files.exists(list.runFile(id, gen, "dead")))
+              found.add(new long[] { id, gen });
+          } // for
+      } // try
+    found.sort((x, y) -> (x[0] != y[0]) ? Long.compare(y[0], x[0])
+                                        : Long.compare(y[1], x[1]));
+
+    // A compacted run holds everything older than itself
+    long oldest = Long.MIN_VALUE;
+    for (long[] run : found)
+      {
+        if ((run[0] < oldest)
+            || (!list.runs.isEmpty()
+                && (list.runs.get(list.runs.size() - 1).id == run[0])))
+          continue;
+        list.runs.add(list.openRun(run[0], (int) run[1]));
+        if (run[1] > 0)
+          oldest = run[0];
+        list.nextId = Math.max(list.nextId, run[0] + 1);
+      } // for
+    list.deleteUnused();
+    return list;
+  } // open(Path, KeyCodec<T>, int, int)
+
+  // +-------------------------+-----------------------------------------
+  // | Internal Helper Methods |
+  // +-------------------------+
+
+  /**
+   * Make an empty level for the memtable.
+   */
+  Level<T> newLevel()
+  {
+    return new Level<T>(new SkipList<T>(), new SkipList<T>());
+  } // newLevel()
+
+  /**
+   * Get the name of one of the files of a run.
+   */
+  Path runFile(long id, int gen, String kind)
+  {
+    return this.dir.resolve(String.format("run-%016d-%d.%s", id, gen, kind));
+  } // runFile(long, int, String)
+
+  /**
+   * Open the files of a run.
+   */
+  Run<T> openRun(long id, int gen)
+    throws IOException
+  {
+    return new Run<T>(id, gen,
+                      SkipListSnapshot.open(runFile(id, gen, "live"),
+                                            this.codec),
+                      SkipListSnapshot.open(runFile(id, gen, "dead"),
+                                            this.codec));
+  } // openRun(long, int)
+
+  /**
+   * Write the values of a level as a run.
+   */
+  Run<T> writeRun(long id, int gen, Iterable<T> live, Iterable<T> dead)
+    throws IOException
+  {
+    SkipListSnapshot.write(live, this.codec, runFile(id, gen, "live"));
+    SkipListSnapshot.write(dead, this.codec, runFile(id, gen, "dead"));
+    return openRun(id, gen);
+  } // writeRun(long, int, Iterable<T>, Iterable<T>)
+
+  /**
+   * Delete the files of runs that are no longer in use.  We leave the
+   * mappings alone, since an iterator may still be reading them; they
+   * go away when the runs are collected.
+   */
+  void deleteUnused()
+    throws IOException
+  {
+    ArrayList<Path> keep = new ArrayList<Path>();
+    synchronized (this)
+      {
+        for (Run<T> run : this.runs)
+          {
+            keep.add(runFile(run.id, run.gen, "live").getFileName());
+            keep.add(runFile(run.id, run.gen, "dead").getFileName());
+          } // for
+      } // synchronized
+    try (DirectoryStream<Path> files =
+        Files.newDirectoryStream(this.dir, "run-*"))
+      {
+        for (Path file : files)
+          {
+            if (!keep.contains(file.getFileName()))
+              Files.delete(file);
+          } // for
+      } // try
+  } // deleteUnused()
+
+  /**
+   * Make sure the list is usable.
+   */
+  void checkOpen()
+  {
+    if (this.closed)
+      {
+        throw new IllegalStateException("list is closed");
+      } // if closed
+  } // checkOpen()
+
+  /**
+   * Wait until every frozen memtable has been written, and report the
+   * first failure to write one.
+   */
+  void drain()
+    throws IOException
+  {
+    try
+      {
+        this.background.submit(() -> { }).get();
+      } // try
+    catch (Exception e)
+      {
+        throw new IOException(e);
+      } // catch
+    synchronized (this)
+      {
+        if (this.failure != null)
+          throw this.failure;
+      } // synchronized
+  } // drain()
+
+  /**
+   * Get the levels, newest first.  Must be called while holding the
+   * monitor.
+   */
+  ArrayList<Level<T>> levels()
+  {
+    ArrayList<Level<T>> levels = new ArrayList<Level<T>>();
+    levels.add(this.memtable);
+    levels.addAll(this.frozen);
+    levels.addAll(this.runs);
+    return levels;
+  } // levels()
+
+  /**
+   * Freeze the memtable and have the background thread write it out.
+   * Must be called while holding the monitor.
+   */
+  void freeze()
+  {
+    final Level<T> level = this.memtable;
+    final long id = this.nextId++;
+    this.frozen.add(0, level);
+    this.memtable = newLevel();
+    this.background.execute(() -> flush(level, id));
+  } // freeze()
+
+  /**
+   * Write a frozen memtable as a run, and compact if there are now too
+   * many runs.  Runs on the background thread.
+   */
+  void flush(Level<T> level, long id)
+  {
+    try
+      {
+        Run<T> run = writeRun(id, 0, level.live, level.dead);
+        int count;
+        synchronized (this)
+          {
+            this.runs.add(0, run);
+            this.frozen.remove(level);
+            count = this.runs.size();
+          } // synchronized
+        if (count > this.maxRuns)
+          compact();
+      } // try
+    catch (IOException e)
+      {
+        synchronized (this)
+          {
+            if (this.failure == null)
+              this.failure = e;
+          } // synchronized
+      } // catch
+  } // flush(Level<T>, long)
+
+  /**
+   * Merge every run into one.  Since the new run holds everything that
+   * is older than it, it has no need to remember removed values.  Runs
+   * on the background thread, which is the only one that changes runs,
+   * so the runs cannot change while we merge them.
+   */
+  void compact()
+    throws IOException
+  {
+    final ArrayList<Level<T>> olds;
+    synchronized (this)
+      {
+        olds = new ArrayList<Level<T>>(this.runs);
+      } // synchronized
+    Run<T> newest = (Run<T>) olds.get(0);
+    Run<T> run = writeRun(newest.id, newest.gen + 1, () -> new Merge<T>(olds),
+                          new SkipList<T>());
+    synchronized (this)
+      {
+        this.runs.clear();
+        this.runs.add(run);
+      } // synchronized
+    deleteUnused();
+  } // compact()
+
+  // +-----------------------+-------------------------------------------
+  // | Methods from Iterable |
+  // +-----------------------+
+
+  /**
+   * Return an iterator that steps through the values of the list from
+   * smallest to largest, as they were when the iterator was made.  Its
+   * remove method removes from the list.
+   */
+  public Iterator<T> iterator()
+  {
+    ArrayList<Level<T>> levels;
+    synchronized (this)
+      {
+        checkOpen();
+        levels = levels();
+        // Copy the memtable, since it may change under us
+        SkipList<T> live = new SkipList<T>(this.memtable.live.iterator());
+        SkipList<T> dead = new SkipList<T>(this.memtable.dead.iterator());
+        levels.set(0, new Level<T>(live, dead));
+      } // synchronized
+    final Merge<T> merge = new Merge<T>(levels);
+    return new Iterator<T>()
+      {
+        T last = null;
+
+        public boolean hasNext()
+        {
+          return merge.hasNext();
+        } // hasNext()
+
+        public T next()
+        {
+          this.last = merge.next();
+          return this.last;
+        } // next()
+
+        public void remove()
+        {
+          if (this.last == null)
+            throw new IllegalStateException();
+          LsmSortedList.this.remove(this.last);
+          this.last = null;
+        } // remove()
+      };
+  } // iterator()
+
+  // +------------------------+------------------------------------------
+  // | Methods from SimpleSet |
+  // +------------------------+
+
+  /**
+   * Add a value to the set.
+   */
+  public synchronized void add(T val)
+  {
+    checkOpen();
+    if (val == null)
+      {
+        return;
+      } // if val is null
+    this.memtable.dead.remove(val);
+    this.memtable.live.add(val);
+    if (this.memtable.entries() >= this.threshold)
+      freeze();
+  } // add(T)
+
+  /**
+   * Determine if the set contains a particular value.
+   */
+  public synchronized boolean contains(T val)
+  {
+    checkOpen();
+    if (val == null)
+      {
+        return false;
+      } // if val is null
+    for (Level<T> level : levels())
+      {
+        Boolean found = level.lookup(val);
+        if (found != null)
+          return found;
+      } // for
+    return false;
+  } // contains(T)
+
+  /**
+   * Remove an element from the set.
+   */
+  public synchronized void remove(T val)
+  {
+    checkOpen();
+    if (val == null)
+      {
+        return;
+      } // if val is null
+    this.memtable.live.remove(val);
+    this.memtable.dead.add(val);
+    if (this.memtable.entries() >= this.threshold)
+      freeze();
+  } // remove(T)
+
+  // +--------------------------+----------------------------------------
+  // | Methods from SemiIndexed |
+  // +--------------------------+
+
+  /**
+   * Get the element at index i.  Takes time linear in i.
+   *
+   * @throws IndexOutOfBoundsException
+   *   if the index is out of range (index < 0 || index >= length)
+   */
+  public T get(int i)
+  {
+    if (i < 0)
+      {
+        throw new IndexOutOfBoundsException();
+      } // if i is negative
+    Iterator<T> it = this.iterator();
+    for (int j = 0; j < i; j++)
+      {
+        if (!it.hasNext())
+          throw new IndexOutOfBoundsException();
+        it.next();
+      } // for
+    if (!it.hasNext())
+      {
+        throw new IndexOutOfBoundsException();
+      } // if i is too large
+    return it.next();
+  } // get(int)
+
+  /**
+   * Determine the number of elements in the collection.  Takes time
+   * linear in the size of the list.
+   */
+  public int length()
+  {
+    int count = 0;
+    for (Iterator<T> it = this.iterator(); it.hasNext(); it.next())
+      count++;
+    return count;
+  } // length()
+
+  // +---------------+---------------------------------------------------
+  // | Other Methods |
+  // +---------------+
+
+  /**
+   * Determine how many runs are on disk.
+   */
+  public synchronized int runs()
+  {
+    return this.runs.size();
+  } // runs()
+
+  /**
+   * Freeze the memtable, if it holds anything, and wait until every
+   * frozen memtable has been written.
+   *
+   * @throws IOException
+   *   if a run could not be written.
+   */
+  public void flush()
+    throws IOException
+  {
+    synchronized (this)
+      {
+        checkOpen();
+        if (this.memtable.entries() > 0)
+          freeze();
+      } // synchronized
+    drain();
+  } // flush()
+
+  /**
+   * Write the memtable, stop the background thread, and unmap the runs.
+   * Closing a list that is already closed does nothing.
+   *
+   * @throws IOException
+   *   if a run could not be written.
+   */
+  public void close()
+    throws IOException
+  {
+    // Mark the list closed before the last freeze, under the lock that
+    // add takes, so that no value can slip into a memtable we never write.
+    synchronized (this)
+      {
+        if (this.closed)
+          return;
+        this.closed = true;
+        if (this.memtable.entries() > 0)
+          freeze();
+      } // synchronized
+    try
+      {
+        drain();
+      } // try
+    finally
+      {
+        this.background.shutdown();
+        try
+          {
+            this.background.awaitTermination(1, TimeUnit.MINUTES);
+          } // try
+        catch (InterruptedException e)
+          {
+            Thread.currentThread().interrupt();
+          } // catch
+        synchronized (this)
+          {
+            for (Run<T> run : this.runs)
+              {
+                ((MappedSortedList<T>) run.live).close();
+                ((MappedSortedList<T>) run.dead).close();
+              } // for
+          } // synchronized
+      } // finally
+  } // close()
+} // class LsmSortedList<T>
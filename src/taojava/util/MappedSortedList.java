@@ -0,0 +1,370 @@
+package taojava.util;
+
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Sorted lists that read their values straight out of a snapshot file
+ * (see SkipListSnapshot) and keep any updates in memory.  Values added
+ * since the snapshot go in one skip list; values of the snapshot that
+ * have since been removed go in another.  Write the list out again with
+ * SkipListSnapshot.write to fold the updates into a new snapshot.
+ *
+ * Closing the list unmaps the file (where the JVM allows), after which
+ * the list throws IllegalStateException on any use.  Do not close a list
+ * while another thread is still using it.
+ *
+ * @author Albert Owusu-Asare
+ */
+public class MappedSortedList<T extends Comparable<T>>
+    implements SortedList<T>, AutoCloseable
+{
+  // +--------+----------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  //the snapshot, or null once the list is closed
+  MappedByteBuffer base;
+  //the number of values in the snapshot
+  int baseCount;
+  //reads values from the snapshot
+  KeyCodec<T> codec;
+  //the number of bytes per value
+  int width;
+
+  //values added since the snapshot (none of which are in the snapshot)
+  SkipList<T> adds;
+  //values of the snapshot that have since been removed
+  SkipList<T> removed;
+
+  //tracks modifications to the list
+  int mods = 0;
+
+  // +--------------+----------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Build a list over a mapped snapshot that holds count values.
+   */
+  MappedSortedList(MappedByteBuffer base, int count, KeyCodec<T> codec)
+  {
+    this.base = base;
+    this.baseCount = count;
+    this.codec = codec;
+    this.width = codec.width();
+    this.adds = new SkipList<T>();
+    this.removed = new SkipList<T>();
+  }//MappedSortedList(MappedByteBuffer, int, KeyCodec<T>)
+
+  // +-------------------------+-----------------------------------------
+  // | Internal Helper Methods |
+  // +-------------------------+
+
+  /**
+   * Make sure the list has not been closed.
+   */
+  void checkOpen()
+  {
+    if (this.base == null)
+      {
+        throw new IllegalStateException("list is closed");
+      }//if closed
+  }//checkOpen()
+
+  /**
+   * Get the value at index i of the snapshot.
+   */
+  T baseGet(int i)
+  {
+    return this.codec.read(this.base,
+                           SkipListSnapshot.HEADER + i * this.width);
+  }//baseGet(int)
+
+  /**
+   * Determine how many values in the snapshot are strictly smaller than
+   * val.
+   */
+  int baseRank(T val)
+  {
+    int lo = 0;
+    int hi = this.baseCount;
+    while (lo < hi)
+      {
+        int mid = (lo + hi) >>> 1;
+        if (baseGet(mid).compareTo(val) < 0)
+          lo = mid + 1;
+        else
+          hi = mid;
+      }//while
+    return lo;
+  }//baseRank(T)
+
+  /**
+   * Determine if the snapshot holds val (whether or not it has since
+   * been removed).
+   */
+  boolean baseContains(T val)
+  {
+    int i = baseRank(val);
+    return (i < this.baseCount) && (baseGet(i).compareTo(val) == 0);
+  }//baseContains(T)
+
+  // +-----------------------+-------------------------------------------
+  // | Methods from Iterable |
+  // +-----------------------+
+
+  /**
+   * Return an iterator that steps through the values of the list from
+   * smallest to largest, merging the snapshot with the values added
+   * since.
+   */
+  public Iterator<T> iterator()
+  {
+    checkOpen();
+    return new Iterator<T>()
+      {
+        // The index of the next snapshot value to consider
+        int bi = 0;
+        // The added values, and the next one we have taken from them
+        Iterator<T> ai = MappedSortedList.this.adds.iterator();
+        T added = null;
+        // The value next returned, and whether it was an added one
+        T last = null;
+        boolean lastAdded;
+        int mods = MappedSortedList.this.mods;
+
+        void failFast()
+        {
+          MappedSortedList.this.checkOpen();
+          if (this.mods != MappedSortedList.this.mods)
+            throw new ConcurrentModificationException();
+        }//failFast()
+
+        public boolean hasNext()
+        {
+          failFast();
+          SkipList<T> removed = MappedSortedList.this.removed;
+          if (removed.length() > 0)
+            {
+              while ((this.bi < MappedSortedList.this.baseCount)
+                     && removed.contains(baseGet(this.bi)))
+                this.bi++;
+            }//if some of the snapshot is gone
+          return (this.bi < MappedSortedList.this.baseCount)
+                 || (this.added != null) || this.ai.hasNext();
+        }//hasNext()
+
+        public T next()
+        {
+          if (!this.hasNext())
+            {
+              throw new NoSuchElementException();
+            }//if no next value
+          if ((this.added == null) && this.ai.hasNext())
+            {
+              this.added = this.ai.next();
+            }//if we need the next added value
+          if ((this.bi == MappedSortedList.this.baseCount)
+              || ((this.added != null)
+                  && (this.added.compareTo(baseGet(this.bi)) < 0)))
+            {
+              this.last = this.added;
+              this.lastAdded = true;
+              this.added = null;
+            }//if the added value comes first
+          else
+            {
+              this.last = baseGet(this.bi++);
+              this.lastAdded = false;
+            }//else the snapshot value comes first
+          return this.last;
+        }//next()
+
+        public void remove()
+        {
+          failFast();
+          if (this.last == null)
+            {
+              throw new IllegalStateException();
+            }//if there is nothing to remove
+          if (this.lastAdded)
+            {
+              // ai has not moved past last, since we only take the
+              // next added value once last has been used
+              this.ai.remove();
+            }//if last was added
+          else
+            {
+              MappedSortedList.this.removed.add(this.last);
+            }//else last is in the snapshot
+          this.mods = ++MappedSortedList.this.mods;
+          this.last = null;
+        }//remove()
+      };
+  } // iterator()
+
+  // +------------------------+------------------------------------------
+  // | Methods from SimpleSet |
+  // +------------------------+
+
+  /**
+   * Add a value to the set.
+   */
+  public void add(T val)
+  {
+    checkOpen();
+    if (val == null)
+      {
+        return;
+      }//if val is null
+    if (this.removed.contains(val))
+      {
+        this.removed.remove(val);
+      }//if val was in the snapshot
+    else if (!baseContains(val))
+      {
+        this.adds.add(val);
+      }//else if val is new
+    this.mods++;
+  } // add(T)
+
+  /**
+   * Determine if the set contains a particular value.
+   */
+  public boolean contains(T val)
+  {
+    checkOpen();
+    if (val == null)
+      {
+        return false;
+      }//if val is null
+    if (this.adds.contains(val))
+      {
+        return true;
+      }//if val was added
+    if ((this.removed.length() > 0) && this.removed.contains(val))
+      {
+        return false;
+      }//if val was removed
+    return baseContains(val);
+  } // contains(T)
+
+  /**
+   * Remove an element from the set.
+   */
+  public void remove(T val)
+  {
+    checkOpen();
+    if (val == null)
+      {
+        return;
+      }//if val is null
+    if (this.adds.contains(val))
+      {
+        this.adds.remove(val);
+      }//if val was added
+    else if (baseContains(val))
+      {
+        this.removed.add(val);
+      }//else if val is in the snapshot
+    this.mods++;
+  } // remove(T)
+
+  // +--------------------------+----------------------------------------
+  // | Methods from SemiIndexed |
+  // +--------------------------+
+
+  /**
+   * Get the element at index i.
+   *
+   * @throws IndexOutOfBoundsException
+   *   if the index is out of range (index < 0 || index >= length)
+   */
+  public T get(int i)
+  {
+    checkOpen();
+    if ((i < 0) || (i >= this.length()))
+      {
+        throw new IndexOutOfBoundsException();
+      }//check bounds
+    if ((this.adds.length() == 0) && (this.removed.length() == 0))
+      {
+        return baseGet(i);
+      }//if nothing has changed
+
+    // Find the first snapshot value whose index in the list is past i.
+    // The value we want comes between that one and the one before.
+    int lo = 0;
+    int hi = this.baseCount;
+    while (lo < hi)
+      {
+        int mid = (lo + hi) >>> 1;
+        if (this.rank(baseGet(mid)) <= i)
+          lo = mid + 1;
+        else
+          hi = mid;
+      }//while
+
+    if (lo > 0)
+      {
+        T before = baseGet(lo - 1);
+        if ((this.rank(before) == i) && !this.removed.contains(before))
+          {
+            return before;
+          }//if it is the snapshot value
+      }//if there is a snapshot value before
+
+    // Otherwise it is an added value.  Everything before it in the list
+    // is either added or a surviving snapshot value before index lo.
+    int survivors =
+        lo - ((lo < this.baseCount) ? this.removed.rank(baseGet(lo))
+                                    : this.removed.length());
+    return this.adds.get(i - survivors);
+  } // get(int)
+
+  /**
+   * Determine the number of elements in the collection.
+   */
+  public int length()
+  {
+    checkOpen();
+    return this.baseCount - this.removed.length() + this.adds.length();
+  } // length()
+
+  // +-------------------------+-----------------------------------------
+  // | Methods from SortedList |
+  // +-------------------------+
+
+  /**
+   * Determine the number of elements that are strictly smaller than
+   * val.
+   */
+  public int rank(T val)
+  {
+    checkOpen();
+    return baseRank(val) - this.removed.rank(val) + this.adds.rank(val);
+  } // rank(T)
+
+  // +----------------------------+--------------------------------------
+  // | Methods from AutoCloseable |
+  // +----------------------------+
+
+  /**
+   * Unmap the snapshot.  Closing a list that is already closed does
+   * nothing.
+   */
+  public void close()
+  {
+    if (this.base != null)
+      {
+        ByteBuffer[] old = { this.base };
+        this.base = null;
+        this.mods++;
+        OffHeapSkipList.release(old, 1);
+      }//if still open
+  } // close()
+} // class MappedSortedList<T>
@@ -0,0 +1,598 @@
+package taojava.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Skip lists of long values whose nodes live outside the Java heap, in
+ * direct byte buffers.  The garbage collector sees only a handful of
+ * buffers however many values the list holds, so these lists can hold
+ * hundreds of millions of values without slowing collection down.
+ *
+ * A node is a long address: the top bits pick a buffer (a "chunk") and
+ * the rest are an offset into it.  Each node is laid out as
+ *
+ *   key (8 bytes) | level (4 bytes) | unused (4 bytes) |
+ *   (next address (8 bytes) | width (8 bytes)) for each level
+ *
+ * and never crosses from one chunk into the next.  Removed nodes go on
+ * a free list for their level, to be reused by later nodes of the same
+ * level.
+ *
+ * Since the list may hold more than Integer.MAX_VALUE values, it counts
+ * with longs.  length() and rank() saturate at Integer.MAX_VALUE; use
+ * size(), rankOf() and get(long) for the exact answers.
+ *
+ * The memory is only given back when the list is closed.  Once it has
+ * been closed, the list throws IllegalStateException on any use.
+ *
+ * @author Albert Owusu-Asare
+ */
+public class OffHeapSkipList
+    implements SortedList<Long>, AutoCloseable
+{
+  // +-----------+-------------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The address of the head of the list.
+   */
+  static final long HEAD = 0;
+
+  /**
+   * The "address" that marks the end of the list (or of a free list).
+   */
+  static final long NIL = -1;
+
+  /**
+   * The number of bits of an address that give the offset into a
+   * chunk.  Chunks are 16 MB.
+   */
+  static final int CHUNK_BITS = 24;
+  static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+  static final long CHUNK_MASK = CHUNK_SIZE - 1;
+
+  /**
+   * Where things are in a node.
+   */
+  static final int KEY = 0;
+  static final int LEVEL = 8;
+  static final int LINKS = 16;
+  static final int LINK_SIZE = 16;
+
+  // +--------+----------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  //the maximum level of the list
+  int MAX_LEVEL;
+  //the  current level number of the list
+  int currentLevel;
+  //size of the list
+  long size;
+  //tracks modifications to the list
+  int mods = 0;
+  //chooses the levels of new nodes
+  LevelGenerator levels;
+
+  //the memory that holds the nodes, or null once the list is closed
+  ByteBuffer[] chunks;
+  //the number of chunks in use
+  int chunkCount;
+  //the address of the first byte that has never been handed out
+  long top;
+
+  //the first free node at each level, chained through their level-0
+  //links
+  long[] free;
+
+  //scratch space for the last node before a value at each level, and
+  //the level-0 positions of those nodes
+  long[] path;
+  long[] pathRank;
+
+  // +--------------+----------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Constructs a new OffHeapSkipList using default maximum number of
+   * levels, which suits lists of up to a few billion values.
+   */
+  public OffHeapSkipList()
+  {
+    this(32);
+  }//OffHeapSkipList()
+
+  /**
+   * Constructs a new OffHeapSkipList using a maximum number of levels.
+   * @param maxLevel the maximum level for the list
+   */
+  public OffHeapSkipList(int maxLevel)
+  {
+    this(maxLevel, new XorShiftLevelGenerator());
+  }//OffHeapSkipList(int)
+
+  /**
+   * Constructs a new OffHeapSkipList using a given level generator and
+   * maximum length.
+   * @param maxLevel the maximum number of levels in the skip List
+   * @param levels chooses the levels of new nodes
+   */
+  public OffHeapSkipList(int maxLevel, LevelGenerator levels)
+  {
+    this.MAX_LEVEL = maxLevel;
+    this.levels = levels;
+    this.currentLevel = 0;
+    this.size = 0;
+    this.path = new long[this.MAX_LEVEL];
+    this.pathRank = new long[this.MAX_LEVEL];
+    this.free = new long[this.MAX_LEVEL + 1];
+    Arrays.fill(this.free, NIL);
+    this.chunks = new ByteBuffer[4];
+    this.chunkCount = 0;
+    this.top = 0;
+
+    // The head gets every level, all of them leading to the end
+    long head = newNode(this.MAX_LEVEL, 0);
+    for (int i = 0; i <= this.MAX_LEVEL; i++)
+      {
+        setNext(head, i, NIL);
+        setWidth(head, i, 1);
+      }//for
+  }//OffHeapSkipList(int, LevelGenerator)
+
+  // +-------------------------+-----------------------------------------
+  // | Internal Helper Methods |
+  // +-------------------------+
+
+  /**
+   * Get the chunk that holds an address.
+   */
+  ByteBuffer chunk(long addr)
+  {
+    return this.chunks[(int) (addr >>> CHUNK_BITS)];
+  }//chunk(long)
+
+  /**
+   * Get the offset of an address within its chunk.
+   */
+  static int offset(long addr)
+  {
+    return (int) (addr & CHUNK_MASK);
+  }//offset(long)
+
+  long key(long node)
+  {
+    return chunk(node).getLong(offset(node) + KEY);
+  }//key(long)
+
+  int level(long node)
+  {
+    return chunk(node).getInt(offset(node) + LEVEL);
+  }//level(long)
+
+  long next(long node, int i)
+  {
+    return chunk(node).getLong(offset(node) + LINKS + LINK_SIZE * i);
+  }//next(long, int)
+
+  void setNext(long node, int i, long next)
+  {
+    chunk(node).putLong(offset(node) + LINKS + LINK_SIZE * i, next);
+  }//setNext(long, int, long)
+
+  long width(long node, int i)
+  {
+    return chunk(node).getLong(offset(node) + LINKS + LINK_SIZE * i + 8);
+  }//width(long, int)
+
+  void setWidth(long node, int i, long width)
+  {
+    chunk(node).putLong(offset(node) + LINKS + LINK_SIZE * i + 8, width);
+  }//setWidth(long, int, long)
+
+  /**
+   * Make sure the list has not been closed.
+   */
+  void checkOpen()
+  {
+    if (this.chunks == null)
+      {
+        throw new IllegalStateException("list is closed");
+      }//if closed
+  }//checkOpen()
+
+  /**
+   * Get the address of a new node of the given level, reusing a removed
+   * node of that level if there is one, and adding a chunk if need be.
+   */
+  long newNode(int level, long val)
+  {
+    long node = this.free[level];
+    if (node != NIL)
+      {
+        this.free[level] = next(node, 0);
+      }//if we can reuse a node
+    else
+      {
+        int bytes = LINKS + LINK_SIZE * (level + 1);
+        if (((this.top >>> CHUNK_BITS) >= this.chunkCount)
+            || (offset(this.top) + bytes > CHUNK_SIZE))
+          {
+            if (this.chunkCount == this.chunks.length)
+              {
+                this.chunks = Arrays.copyOf(this.chunks, 2 * this.chunkCount);
+              }//if we need room for more chunks
+            this.chunks[this.chunkCount] =
+                ByteBuffer.allocateDirect(CHUNK_SIZE)
+                          .order(ByteOrder.nativeOrder());
+            this.top = ((long) this.chunkCount) << CHUNK_BITS;
+            this.chunkCount++;
+          }//if the node will not fit in the current chunk
+        node = this.top;
+        this.top += bytes;
+        chunk(node).putInt(offset(node) + LEVEL, level);
+      }//else we need a fresh node
+    chunk(node).putLong(offset(node) + KEY, val);
+    return node;
+  }//newNode(int, long)
+
+  /**
+   * Find the last node before val at each level, recording those nodes
+   * in path and their positions in pathRank.
+   *
+   * @return the first node that is not smaller than val, or NIL if
+   *   there is none.
+   */
+  long findPath(long val)
+  {
+    long active = HEAD;
+    long position = 0;
+
+    for (int i = this.currentLevel; i >= 0; i--)
+      {
+        long next = next(active, i);
+        while ((next != NIL) && (key(next) < val))
+          {
+            position += width(active, i);
+            active = next;
+            next = next(active, i);
+          }//while
+        this.path[i] = active;
+        this.pathRank[i] = position;
+      }//for
+    return next(active, 0);
+  }// findPath(long)
+
+  /**
+   * Give the memory of every chunk back to the system, if the JVM lets
+   * us.  Otherwise, the memory goes back once the chunks are collected.
+   */
+  static void release(ByteBuffer[] chunks, int count)
+  {
+    try
+      {
+        Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+        Field field = unsafeClass.getDeclaredField("theUnsafe");
+        field.setAccessible(true);
+        Object unsafe = field.get(null);
+        Method invokeCleaner =
+            unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        for (int i = 0; i < count; i++)
+          {
+            invokeCleaner.invoke(unsafe, chunks[i]);
+          }//for
+      }//try
+    catch (Exception e)
+      {
+        // Leave it to the garbage collector
+      }//catch
+  }//release(ByteBuffer[], int)
+
+  // +-----------------------+-------------------------------------------
+  // | Methods from Iterable |
+  // +-----------------------+
+
+  /**
+   * Return an iterator that visits the values of the list from smallest
+   * to largest, without boxing them (as long as you call nextLong).
+   */
+  public PrimitiveIterator.OfLong iterator()
+  {
+    checkOpen();
+    return new PrimitiveIterator.OfLong()
+      {
+        long cursor = HEAD;
+        long previous = HEAD;
+        int mods = OffHeapSkipList.this.mods;
+
+        void failFast()
+        {
+          OffHeapSkipList.this.checkOpen();
+          if (this.mods != OffHeapSkipList.this.mods)
+            throw new ConcurrentModificationException();
+        }//failFast()
+
+        public boolean hasNext()
+        {
+          failFast();
+          return OffHeapSkipList.this.next(this.cursor, 0) != NIL;
+        }//hasNext()
+
+        public long nextLong()
+        {
+          if (!this.hasNext())
+            {
+              throw new NoSuchElementException();
+            }//if no next value
+          this.previous = this.cursor;
+          this.cursor = OffHeapSkipList.this.next(this.cursor, 0);
+          return key(this.cursor);
+        }//nextLong()
+
+        public void remove()
+        {
+          failFast();
+          if (this.cursor == this.previous)
+            {
+              throw new IllegalStateException();
+            }//if there is nothing to remove
+          OffHeapSkipList.this.remove(key(this.cursor));
+          this.mods = OffHeapSkipList.this.mods;
+          this.cursor = this.previous;
+        }//remove()
+      };
+  } // iterator()
+
+  // +------------------------+------------------------------------------
+  // | Methods from SimpleSet |
+  // +------------------------+
+
+  /**
+   * Add a value to the set.
+   */
+  public void add(Long val)
+  {
+    if (val != null)
+      {
+        add(val.longValue());
+      }//if val is not null
+  } // add(Long)
+
+  /**
+   * Add a value to the set.
+   */
+  public void add(long val)
+  {
+    checkOpen();
+    long active = findPath(val);
+    if ((active != NIL) && (key(active) == val))
+      {
+        return;
+      }//if val is already there
+
+    int i;
+    int newLevel = this.levels.randomLevel(this.MAX_LEVEL);
+    if (newLevel > this.currentLevel)
+      {
+        for (i = this.currentLevel + 1; i <= newLevel; i++)
+          {
+            this.path[i] = HEAD;
+            this.pathRank[i] = 0;
+            setWidth(HEAD, i, this.size + 1);
+          }//for
+        this.currentLevel = newLevel;
+      }//if new level greater than current list level
+
+    long node = newNode(newLevel, val);
+    long predecessor = this.pathRank[0];
+    for (i = 0; i <= newLevel; i++)
+      {
+        long before = predecessor - this.pathRank[i];
+        long from = this.path[i];
+        setNext(node, i, next(from, i));
+        setWidth(node, i, width(from, i) - before);
+        setNext(from, i, node);
+        setWidth(from, i, before + 1);
+      }//for
+    for (i = newLevel + 1; i <= this.currentLevel; i++)
+      {
+        setWidth(this.path[i], i, width(this.path[i], i) + 1);
+      }//for
+    this.mods++;
+    this.size++;
+  } // add(long)
+
+  /**
+   * Determine if the set contains a particular value.
+   */
+  public boolean contains(Long val)
+  {
+    return (val != null) && contains(val.longValue());
+  } // contains(Long)
+
+  /**
+   * Determine if the set contains a particular value.
+   */
+  public boolean contains(long val)
+  {
+    checkOpen();
+    long active = HEAD;
+    for (int i = this.currentLevel; i >= 0; i--)
+      {
+        long next = next(active, i);
+        while ((next != NIL) && (key(next) < val))
+          {
+            active = next;
+            next = next(active, i);
+          }//while
+      }//for
+    active = next(active, 0);
+    return (active != NIL) && (key(active) == val);
+  } // contains(long)
+
+  /**
+   * Remove an element from the set.
+   */
+  public void remove(Long val)
+  {
+    if (val != null)
+      {
+        remove(val.longValue());
+      }//if val is not null
+  } // remove(Long)
+
+  /**
+   * Remove an element from the set.
+   */
+  public void remove(long val)
+  {
+    checkOpen();
+    long active = findPath(val);
+    if ((active == NIL) || (key(active) != val))
+      {
+        return;
+      }//if val is not there
+
+    for (int i = 0; i <= this.currentLevel; i++)
+      {
+        long from = this.path[i];
+        if (next(from, i) == active)
+          {
+            setWidth(from, i, width(from, i) + width(active, i) - 1);
+            setNext(from, i, next(active, i));
+          }//if the pointer leads to active
+        else
+          {
+            setWidth(from, i, width(from, i) - 1);
+          }//else the pointer skips over active
+      }//for
+    while (this.currentLevel > 0 && next(HEAD, this.currentLevel) == NIL)
+      {
+        this.currentLevel--;
+      }//while
+
+    // Put the node on the free list for its level
+    int level = level(active);
+    setNext(active, 0, this.free[level]);
+    this.free[level] = active;
+
+    this.mods++;
+    this.size--;
+  } // remove(long)
+
+  // +--------------------------+----------------------------------------
+  // | Methods from SemiIndexed |
+  // +--------------------------+
+
+  /**
+   * Get the element at index i.
+   *
+   * @throws IndexOutOfBoundsException
+   *   if the index is out of range (index < 0 || index >= length)
+   */
+  public Long get(int i)
+  {
+    return get((long) i);
+  } // get(int)
+
+  /**
+   * Get the element at index i.
+   *
+   * @throws IndexOutOfBoundsException
+   *   if the index is out of range (index < 0 || index >= size)
+   */
+  public long get(long i)
+  {
+    checkOpen();
+    if ((i < 0) || (i >= this.size))
+      {
+        throw new IndexOutOfBoundsException();
+      }//check bounds
+
+    long current = HEAD;
+    long position = 0;
+    for (int level = this.currentLevel; level >= 0; level--)
+      {
+        while (position + width(current, level) <= i + 1)
+          {
+            position += width(current, level);
+            current = next(current, level);
+          }//while
+      }//for
+    return key(current);
+  } // get(long)
+
+  /**
+   * Determine the number of elements in the collection, or
+   * Integer.MAX_VALUE if there are more than that.
+   */
+  public int length()
+  {
+    checkOpen();
+    return (int) Math.min(this.size, Integer.MAX_VALUE);
+  } // length()
+
+  /**
+   * Determine the number of elements in the collection.
+   */
+  public long size()
+  {
+    checkOpen();
+    return this.size;
+  } // size()
+
+  // +-------------------------+-----------------------------------------
+  // | Methods from SortedList |
+  // +-------------------------+
+
+  /**
+   * Determine the number of elements that are strictly smaller than
+   * val, or Integer.MAX_VALUE if there are more than that.
+   */
+  public int rank(Long val)
+  {
+    return (int) Math.min(rankOf(val.longValue()), Integer.MAX_VALUE);
+  } // rank(Long)
+
+  /**
+   * Determine the number of elements that are strictly smaller than
+   * val.
+   */
+  public long rankOf(long val)
+  {
+    checkOpen();
+    findPath(val);
+    return this.pathRank[0];
+  } // rankOf(long)
+
+  // +----------------------------+--------------------------------------
+  // | Methods from AutoCloseable |
+  // +----------------------------+
+
+  /**
+   * Give back the memory that holds the list.  Closing a list that is
+   * already closed does nothing.
+   */
+  public void close()
+  {
+    if (this.chunks != null)
+      {
+        ByteBuffer[] old = this.chunks;
+        int count = this.chunkCount;
+        this.chunks = null;
+        this.chunkCount = 0;
+        this.size = 0;
+        this.mods++;
+        release(old, count);
+      }//if still open
+  } // close()
+} // class OffHeapSkipList
@@ -0,0 +1,72 @@
+package taojava.util;
+
+import java.util.Random;
+
+/**
+ * Level generators that flip a biased coin, using java.util.Random,
+ * until it comes up tails.  Works for any probability, but needs one
+ * call to nextDouble per level.
+ *
+ * @author Albert Owusu-Asare
+ */
+public class RandomLevelGenerator
+    implements LevelGenerator
+{
+  // +--------+----------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The probability of going up a level.
+   */
+  double probability;
+
+  /**
+   * Our source of randomness.  Shared by every node, rather than
+   * created anew each time.
+   */
+  Random generator;
+
+  // +--------------+----------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a generator that goes up a level with the given probability.
+   */
+  public RandomLevelGenerator(double probability)
+  {
+    this.probability = probability;
+    this.generator = new Random();
+  } // RandomLevelGenerator(double)
+
+  /**
+   * Create a generator that goes up a level with the given probability
+   * and always produces the same levels for the same seed.
+   */
+  public RandomLevelGenerator(double probability, long seed)
+  {
+    this.probability = probability;
+    this.generator = new Random(seed);
+  } // RandomLevelGenerator(double, long)
+
+  // +-----------------------------+-------------------------------------
+  // | Methods from LevelGenerator |
+  // +-----------------------------+
+
+  public int randomLevel(int maxLevel)
+  {
+    int newLevel = 0;
+    while ((newLevel < maxLevel - 1)
+           && (this.generator.nextDouble() < this.probability))
+      {
+        newLevel++;
+      } // while random < probability
+    return newLevel;
+  } // randomLevel(int)
+
+  public double probability()
+  {
+    return this.probability;
+  } // probability()
+} // class RandomLevelGenerator
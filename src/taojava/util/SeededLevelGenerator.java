@@ -0,0 +1,70 @@
+package taojava.util;
+
+/**
+ * Level generators that produce the same sequence of levels every
+ * time they are given the same seed, so that benchmarks can be
+ * repeated exactly.  Uses the same xorshift method as
+ * XorShiftLevelGenerator, but with a single state.  Not thread-safe.
+ *
+ * @author Albert Owusu-Asare
+ */
+public class SeededLevelGenerator
+    implements LevelGenerator
+{
+  // +--------+----------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The generator's state.
+   */
+  long state;
+
+  /**
+   * The number of random bits used per level.
+   */
+  int bits;
+
+  // +--------------+----------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a generator that goes up a level with probability 1/2.
+   */
+  public SeededLevelGenerator(long seed)
+  {
+    this(seed, 0.5);
+  } // SeededLevelGenerator(long)
+
+  /**
+   * Create a generator that goes up a level with the given probability.
+   *
+   * @throws IllegalArgumentException
+   *   if probability is not 1/2, 1/4, 1/8, ...
+   */
+  public SeededLevelGenerator(long seed, double probability)
+  {
+    this.bits = XorShiftLevelGenerator.bitsPerLevel(probability);
+    if (this.bits == 0)
+      throw new IllegalArgumentException("probability " + probability
+                                         + " is not a power of 1/2");
+    // The state must not be zero
+    this.state = (seed == 0) ? 1 : seed;
+  } // SeededLevelGenerator(long, double)
+
+  // +-----------------------------+-------------------------------------
+  // | Methods from LevelGenerator |
+  // +-----------------------------+
+
+  public int randomLevel(int maxLevel)
+  {
+    this.state = XorShiftLevelGenerator.step(this.state);
+    return XorShiftLevelGenerator.levelOf(this.state, this.bits, maxLevel);
+  } // randomLevel(int)
+
+  public double probability()
+  {
+    return 1.0 / (1L << this.bits);
+  } // probability()
+} // class SeededLevelGenerator
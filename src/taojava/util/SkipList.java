@@ -1,9 +1,14 @@
 package taojava.util;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
-import java.util.Random;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * A randomized implementation of sorted lists.  
@@ -39,9 +44,40 @@ public class SkipList<T extends Comparable<T>>
   int size;
   //Probability used in calculating random level
   double probability;
+  //Chooses the levels of new nodes
+  LevelGenerator levels;
   //tracks modifications to the list
   int mods = 0;
 
+  //scratch space for the last node before a value at each level, and
+  //the level-0 positions of those nodes.  Reused by every update, so
+  //that updates need not allocate; with finger searches on, it also
+  //serves as the finger.
+  Node<T>[] path;
+  int[] pathRank;
+  //whether finger searches are on
+  boolean fingerOn;
+  //the value of mods when the finger was recorded
+  int fingerMods;
+  //the number of finger searches, and how many of them reused the finger
+  long fingerSearches;
+  long fingerHits;
+
+  //removed nodes kept for reuse, one list per level, chained through
+  //forwardPointers[0], along with the length of each list
+  Node<T>[] freeNodes;
+  int[] freeCounts;
+  //the most removed nodes to keep at each level (0 means none)
+  int recycleLimit;
+
+  //whether the list counts repeated values, rather than dropping them
+  boolean counting;
+
+  //the version that changes are now stamped with, and the versions of
+  //the open snapshots (null until the first snapshot)
+  int version;
+  SkipList<Integer> snapshots;
+
   //the front of the list stores references to all the 
   //different levels from 0 to MaxLevel
   Node<T> head;
@@ -72,6 +108,30 @@ public class SkipList<T extends Comparable<T>>
      */
     Node<T>[] forwardPointers;
 
+    /**
+     * The number of level-0 steps each forward pointer skips.  That is,
+     * widths[i] is the distance between this node and
+     * forwardPointers[i] at the bottom of the list.
+     */
+    int[] widths;
+
+    /**
+     * The number of copies of val the node stands for.  Always 1
+     * unless the list is counting.
+     */
+    int count;
+
+    /**
+     * The node before this one at level 0.  For the head, null.
+     */
+    Node<T> backward;
+
+    /**
+     * The earlier targets of forwardPointers[0] that open snapshots may
+     * still need, newest first.
+     */
+    Link<Node<T>> history;
+
     /**
      * Constructs a new node
      * @param nodeLevel the level this node is at.
@@ -81,8 +141,10 @@ public class SkipList<T extends Comparable<T>>
     public Node(int nodeLevel, T data)
     {
       this.val = data;
+      this.count = 1;
       // we will use index 1 to nodeLevel for our forward pointers
       this.forwardPointers = new Node[nodeLevel + 1];
+      this.widths = new int[nodeLevel + 1];
       //initialize all the pointers to null upon creation
       for (int i = 0; i < nodeLevel; i++)
         {
@@ -91,6 +153,169 @@ public class SkipList<T extends Comparable<T>>
     }//Node(int, T) 
   } // class Node
 
+  /**
+   * An earlier level-0 link of a node.  A snapshot taken before the
+   * link was replaced follows next instead of the current link.
+   */
+  static class Link<N>
+  {
+    //the version in which the link was replaced
+    final int stamp;
+    //where the link led before then
+    final N next;
+    //the link before this one
+    Link<N> older;
+
+    Link(int stamp, N next, Link<N> older)
+    {
+      this.stamp = stamp;
+      this.next = next;
+      this.older = older;
+    }//Link(int, N, Link<N>)
+  } // class Link<N>
+
+  /**
+   * Spliterators over a run of consecutive nodes.  We track the level-0
+   * positions of both ends, so every piece knows its exact size.  In a
+   * counting list, a piece may begin or end part way through the
+   * copies that one node stands for.
+   */
+  class Pieces
+      implements Spliterator<T>
+  {
+    //the next node to visit, how many of its copies we have already
+    //passed, and the level-0 position of the next copy
+    Node<T> cursor;
+    int offset;
+    int position;
+    //the position just past the end of the run, or -1 if we have yet
+    //to bind to the whole list
+    int end;
+    int mods;
+
+    Pieces(Node<T> cursor, int offset, int position, int end)
+    {
+      this.cursor = cursor;
+      this.offset = offset;
+      this.position = position;
+      this.end = end;
+      this.mods = SkipList.this.mods;
+    }//Pieces(Node<T>, int, int, int)
+
+    /**
+     * Move past one copy of the value at cursor.
+     */
+    void step()
+    {
+      if (++this.offset == this.cursor.count)
+        {
+          this.cursor = this.cursor.forwardPointers[0];
+          this.offset = 0;
+        }//if we have passed every copy
+      this.position++;
+    }//step()
+
+    /**
+     * Fix the range of an unsplit spliterator the first time we need
+     * it, so that it covers what is in the list when it is used rather
+     * than when it was made.
+     */
+    void bind()
+    {
+      if (this.end < 0)
+        {
+          this.cursor = SkipList.this.head.forwardPointers[0];
+          this.end = SkipList.this.size + 1;
+          this.mods = SkipList.this.mods;
+        }//if not yet bound
+    }//bind()
+
+    void failFast()
+    {
+      if (this.mods != SkipList.this.mods)
+        throw new ConcurrentModificationException();
+    }//failFast()
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action)
+    {
+      bind();
+      failFast();
+      if (this.position >= this.end)
+        {
+          return false;
+        }//if there is nothing left
+      T val = this.cursor.val;
+      this.step();
+      action.accept(val);
+      return true;
+    }//tryAdvance(Consumer<? super T>)
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action)
+    {
+      bind();
+      failFast();
+      while (this.position < this.end)
+        {
+          T val = this.cursor.val;
+          this.step();
+          action.accept(val);
+        }//while
+      failFast();
+    }//forEachRemaining(Consumer<? super T>)
+
+    /**
+     * Hand the first half of our run to a new spliterator.  We find the
+     * middle node from the top of the list, which costs O(log n) rather
+     * than the O(n) of walking half the run.
+     */
+    @Override
+    public Spliterator<T> trySplit()
+    {
+      bind();
+      failFast();
+      int middle = this.position + (this.end - this.position) / 2;
+      if (middle == this.position)
+        {
+          return null;
+        }//if too small to split
+      Pieces prefix =
+          new Pieces(this.cursor, this.offset, this.position, middle);
+      prefix.mods = this.mods;
+      this.cursor = SkipList.this.nodeAt(middle);
+      // rank gives the position just before the first copy of cursor
+      this.offset = SkipList.this.counting
+          ? middle - 1 - SkipList.this.rank(this.cursor.val) : 0;
+      this.position = middle;
+      return prefix;
+    }//trySplit()
+
+    @Override
+    public long estimateSize()
+    {
+      bind();
+      return this.end - this.position;
+    }//estimateSize()
+
+    @Override
+    public int characteristics()
+    {
+      int result = Spliterator.ORDERED | Spliterator.SORTED
+                   | Spliterator.NONNULL | Spliterator.SIZED
+                   | Spliterator.SUBSIZED;
+      // A counting list returns each value once per copy
+      return SkipList.this.counting ? result : result | Spliterator.DISTINCT;
+    }//characteristics()
+
+    @Override
+    public Comparator<? super T> getComparator()
+    {
+      //null, since we are sorted in natural order
+      return null;
+    }//getComparator()
+  } // class Pieces
+
   // +--------------+----------------------------------------------------
   // | Constructors |
   // +--------------+
@@ -117,21 +342,67 @@ public class SkipList<T extends Comparable<T>>
    * @param maxLevel the maximum number of levels in the skip List
    * @param probability the probability used in assinging random levels
    */
-  @SuppressWarnings("unchecked")
   public SkipList(int maxLevel, double probability)
+  {
+    this(maxLevel, LevelGenerator.forProbability(probability));
+  };//SkipList(int, double)
+
+  /**
+   * Constructs a new SkipList using a given level generator and maximum
+   * length.
+   * @param maxLevel the maximum number of levels in the skip List
+   * @param levels chooses the levels of new nodes
+   */
+  @SuppressWarnings("unchecked")
+  public SkipList(int maxLevel, LevelGenerator levels)
   {
     this.currentLevel = 0;
-    this.probability = probability;
+    this.levels = levels;
+    this.probability = levels.probability();
     this.MAX_LEVEL = maxLevel;
+    this.path = new Node[this.MAX_LEVEL];
+    this.pathRank = new int[this.MAX_LEVEL];
+    this.freeNodes = new Node[this.MAX_LEVEL];
+    this.freeCounts = new int[this.MAX_LEVEL];
+    this.recycleLimit = 0;
     this.head = new Node<T>(this.MAX_LEVEL, null);
     this.tail = new Node<T>(this.MAX_LEVEL, null);
     for (int i = 0; i < this.MAX_LEVEL; i++)
       {
         this.tail.forwardPointers[i] = null;
         this.head.forwardPointers[i] = tail;
+        this.head.widths[i] = 1;
       }//for
+    this.tail.backward = this.head;
     // setHeadToTail(this.head, this.tail);
-  };//SkipList(int, double)
+  };//SkipList(int, LevelGenerator)
+
+  /**
+   * Constructs a new SkipList holding the values of sorted, which must
+   * produce them in increasing order.  Builds the list in one pass,
+   * in time linear in the number of values.
+   *
+   * @throws IllegalArgumentException
+   *   if sorted produces a value smaller than the one before it
+   */
+  public SkipList(Iterator<T> sorted)
+  {
+    this();
+    this.loadSorted(sorted);
+  }//SkipList(Iterator<T>)
+
+  /**
+   * Constructs a new SkipList holding the values in sorted, which must
+   * be in increasing order.  Builds the list in one pass, in time
+   * linear in the number of values.
+   *
+   * @throws IllegalArgumentException
+   *   if sorted is out of order
+   */
+  public SkipList(T[] sorted)
+  {
+    this(Arrays.asList(sorted).iterator());
+  }//SkipList(T[])
 
   void setHeadToTail(Node<T> head, Node<T> tail)
   {
@@ -149,256 +420,1258 @@ public class SkipList<T extends Comparable<T>>
    */
   public int randomLevel()
   {
-    int newLevel = 0;
-    Random generator = new Random();
-
-    while (generator.nextDouble() < this.probability)
-      {
-        newLevel++;
-      }//while random < probability
-    return Math.min(this.MAX_LEVEL - 1, newLevel);
+    return this.levels.randomLevel(this.MAX_LEVEL);
   }// randomLevel
 
-  // +-----------------------+-------------------------------------------
-  // | Methods from Iterable |
-  // +-----------------------+
-
   /**
-   * Return a read-only iterator (one that does not implement the remove
-   * method) that iterates the values of the list from smallest to
-   * largest.
+   * Append the values of sorted to this empty list, left to right.
+   * Rather than choose levels at random, we give the kth node level j,
+   * where j is the number of times 1/probability divides k, so that
+   * towers are evenly spaced.  Duplicates and nulls are skipped.
+   *
+   * @pre this.size == 0
+   * @throws IllegalArgumentException
+   *   if sorted produces a value smaller than the one before it
    */
-  public Iterator<T> iterator()
+  @SuppressWarnings("unchecked")
+  void loadSorted(Iterator<T> sorted)
   {
+    // The last node at each level, and its level-0 position
+    Node<T>[] last = new Node[this.MAX_LEVEL];
+    int[] lastPosition = new int[this.MAX_LEVEL];
+    Arrays.fill(last, this.head);
+    int step = Math.max(2, (int) Math.round(1 / this.probability));
+    T previous = null;
 
-    return new Iterator<T>()
+    while (sorted.hasNext())
       {
+        T val = sorted.next();
+        if (val == null)
+          continue;
+        if (previous != null)
+          {
+            int order = previous.compareTo(val);
+            if (order == 0)
+              continue;
+            if (order > 0)
+              throw new IllegalArgumentException(val + " follows " + previous);
+          }//if we need to check the order
+        previous = val;
 
-        //Fields 
-        Node<T> cursor = SkipList.this.head;
-        int mods = SkipList.this.mods;
-
-        //Helper method
-        /**
-         * Checks if the list has been updated since <code>this</code> Iterator
-         * was modified
-         */
-
-        void failFast()
-        {
-          if (this.mods != SkipList.this.mods)
-            throw new ConcurrentModificationException();
-        }//failFast()
-
-        @Override
-        public boolean hasNext()
-        {
-          failFast();
-          return this.cursor.forwardPointers[0].val != null;
-        }//hasNext()
-
-        @Override
-        public T next()
-        {
-          failFast();
-          //check if there is actually a next value
-          if (!this.hasNext())
-            {
-              throw new NoSuchElementException();
-            }//if no next value
-          this.cursor = this.cursor.forwardPointers[0];
-          return this.cursor.val;
-
-        }//next()
-
-        @Override
-        public void remove()
-        {
-          // move to the position right before the current cur
-          failFast();
-          SkipList.this.remove(this.cursor.val);
-          this.mods++;
-          SkipList.this.size--;
-        }//remove() 
-      };
-  } // iterator()
+        int position = this.size + 1;
+        int newLevel = 0;
+        for (int k = position; k % step == 0; k /= step)
+          {
+            if (newLevel == this.MAX_LEVEL - 1)
+              break;
+            newLevel++;
+          }//for
+        Node<T> node = new Node<T>(newLevel, val);
+        node.backward = last[0];
+        for (int i = 0; i <= newLevel; i++)
+          {
+            last[i].forwardPointers[i] = node;
+            last[i].widths[i] = position - lastPosition[i];
+            last[i] = node;
+            lastPosition[i] = position;
+          }//for
+        this.currentLevel = Math.max(this.currentLevel, newLevel);
+        this.size++;
+      }//while
 
-  // +------------------------+------------------------------------------
-  // | Methods from SimpleSet |
-  // +------------------------+
+    // Close off every level at the tail
+    for (int i = 0; i < this.MAX_LEVEL; i++)
+      {
+        last[i].forwardPointers[i] = this.tail;
+        last[i].widths[i] = this.size + 1 - lastPosition[i];
+      }//for
+    this.tail.backward = last[0];
+    this.mods++;
+  }// loadSorted(Iterator<T>)
 
   /**
-   * Add a value to the set.
+   * Find the last node before val at each level from top down to 0,
+   * starting the search at update[top].  Records those nodes in update
+   * and their level-0 positions in rank.
    *
-   * @post contains(val)
-   * @post For all lav != val, if contains(lav) held before the call
-   *   to add, contains(lav) continues to hold.
+   * @pre update[top] comes before val, and rank[top] is its position.
+   * @return the node after update[0], which is the first node that
+   *   is not smaller than val (possibly the tail).
    */
-
-  public void add(T val)
+  Node<T> findPath(T val, Node<T>[] update, int[] rank, int top)
   {
-    // An array of pointer to nodes that we should update
-    @SuppressWarnings("unchecked")
-    Node<T>[] update = new Node[this.MAX_LEVEL];
-    Node<T> active = this.head;
-
-    //assert if val is null
-    if (val == null)
-      {
-        return;
-      }//if
-    int i;
+    Node<T> active = update[top];
+    int position = rank[top];
 
-    //find and record all the updates
-    for (i = this.currentLevel; i >= 0; i--)
+    for (int i = top; i >= 0; i--)
       {
         while ((active.forwardPointers[i].val != null)
                && active.forwardPointers[i].val.compareTo(val) < 0)
           {
+            position += active.widths[i];
             active = active.forwardPointers[i];
           }//while
-           //update
         update[i] = active;
+        rank[i] = position;
       }//for
-
-    //reset active
-    active = active.forwardPointers[0];
-
-    if (active.val != null && active.val.compareTo(val) == 0)
-      {
-        return;
-      }//if current val equal to val
-
-    else
-      {
-        int newLevel = randomLevel();
-        if (newLevel > this.currentLevel)
-          {
-            for (i = this.currentLevel + 1; i <= newLevel; i++)
-              {
-                update[i] = this.head;
-              }//for
-            this.currentLevel = newLevel;
-          }//if new level greater than current list level
-
-        //insert new node
-        active = new Node<T>(newLevel, val);
-        for (i = 0; i <= newLevel; i++)
-          {
-            active.forwardPointers[i] = update[i].forwardPointers[i];
-            update[i].forwardPointers[i] = active;
-          }//for
-      }//else
-    this.mods++;
-    this.size++;
-  } // add(T val)
+    return active.forwardPointers[0];
+  }// findPath(T, Node<T>[], int[], int)
 
   /**
-   * Determine if the set contains a particular value.
-   * @param searchVal the value to search by
+   * Find the last node before val (possibly the head), using only local
+   * state.  Unlike findPath, this writes nothing, so lookups that use
+   * it may run alongside optimistic readers of a StampedSortedList.
    */
-  public boolean contains(T searchVal)
+  Node<T> lastBefore(T val)
   {
-    Node<T> active = this.head; //point active pointer to the head
-    int i;
-
-    for (i = this.currentLevel; i >= 0; i--)
+    Node<T> active = this.head;
+    for (int i = this.currentLevel; i >= 0; i--)
       {
         while ((active.forwardPointers[i].val != null)
-               && active.forwardPointers[i].val.compareTo(searchVal) < 0)
+               && active.forwardPointers[i].val.compareTo(val) < 0)
           {
             active = active.forwardPointers[i];
           }//while
       }//for
+    return active;
+  }// lastBefore(T)
 
-    //check to see if there is a next 
-    if (active.forwardPointers[0].val == null)
-      {
-        return false;
-      }//if
-    active = active.forwardPointers[0];
-    return (active.val.compareTo(searchVal) == 0);
-  } // contains(T)
+  /**
+   * Determine if the list contains val without touching the finger or
+   * the shared path, so that several threads may look at once.
+   */
+  boolean containsReadOnly(T val)
+  {
+    Node<T> next = lastBefore(val).forwardPointers[0];
+    return (next.val != null) && (next.val.compareTo(val) == 0);
+  }// containsReadOnly(T)
 
   /**
-   * Remove an element from the set.
+   * Find the path to val from the head of the list.
    *
-   * @post !contains(val)
-   * @post For all lav != val, if contains(lav) held before the call
-   *   to remove, contains(lav) continues to hold.
+   * @return the first node that is not smaller than val.
    */
-  @SuppressWarnings("unchecked")
-  public void remove(T val)
+  Node<T> findPath(T val, Node<T>[] update, int[] rank)
   {
-    Node<T>[] update = new Node[this.MAX_LEVEL];
-    Node<T> active = this.head;
+    update[this.currentLevel] = this.head;
+    rank[this.currentLevel] = 0;
+    return findPath(val, update, rank, this.currentLevel);
+  }// findPath(T, Node<T>[], int[])
 
-    if (val == null)
+  /**
+   * Find the lowest level of a previously found path at which we can
+   * restart a search for val.  That is the first level whose next node
+   * is not smaller than val; every level above it already leads to
+   * val.
+   *
+   * @pre update and rank hold a path to a value no larger than val.
+   */
+  int climb(T val, Node<T>[] update)
+  {
+    int top = 0;
+    while ((top < this.currentLevel)
+           && (update[top].forwardPointers[top].val != null)
+           && (update[top].forwardPointers[top].val.compareTo(val) < 0))
       {
-        return;
-      }// if the argument passed in is a null object
+        top++;
+      }//while
+    return top;
+  }// climb(T, Node<T>[])
 
-    //find and record update array
-    int i;//loop variable
-    for (i = this.currentLevel; i >= 0; i--)
+  /**
+   * Determine whether the finger brackets val at level i, that is,
+   * whether val falls between path[i] and its successor.
+   */
+  boolean brackets(int i, T val)
+  {
+    Node<T> next = this.path[i].forwardPointers[i];
+    return ((this.path[i] == this.head)
+            || (this.path[i].val.compareTo(val) < 0))
+           && ((next == this.tail) || (next.val.compareTo(val) >= 0));
+  }// brackets(int, T)
+
+  /**
+   * Find the path to val, starting from the lowest level of the
+   * previous path that still brackets val.  The path is left in
+   * path and pathRank.
+   *
+   * @return the first node that is not smaller than val.
+   */
+  Node<T> fingerPath(T val)
+  {
+    Node<T> result;
+    this.fingerSearches++;
+    if (this.fingerMods != this.mods)
       {
-        while ((active.forwardPointers[i].val != null)
-               && active.forwardPointers[i].val.compareTo(val) < 0)
+        // Someone else changed the list, so the finger may be stale
+        result = findPath(val, this.path, this.pathRank);
+      }//if the finger is out of date
+    else
+      {
+        int top = 0;
+        while ((top < this.currentLevel) && !brackets(top, val))
           {
-            active = active.forwardPointers[i];
+            top++;
           }//while
-        update[i] = active;
-      }//for 
-
-    active = active.forwardPointers[0];
-
-    if (active.val != null && active.val.compareTo(val) == 0)
-      {
-        for (i = 0; i <= this.currentLevel; i++)
+        if (brackets(top, val))
           {
-            if (update[i].forwardPointers[i] != active)
-              break;
-            update[i].forwardPointers[i] = active.forwardPointers[i];
-          }//for
-        active = null; //allow to be freed by garbage collector
-
-        while (this.currentLevel > 0
-               && this.head.forwardPointers[this.currentLevel] == null)
+            if (top < this.currentLevel)
+              this.fingerHits++;
+            result = findPath(val, this.path, this.pathRank, top);
+          }//if the finger helped
+        else
           {
-            this.currentLevel--;
-          }//while
-        this.mods++;
-        this.size--;
-      }//if  
-  } // remove(T)
-
-  // +--------------------------+----------------------------------------
-  // | Methods from SemiIndexed |
-  // +--------------------------+
+            result = findPath(val, this.path, this.pathRank);
+          }//else start from the head
+      }//else
+    this.fingerMods = this.mods;
+    return result;
+  }// fingerPath(T)
 
   /**
-   * Get the element at index i.
+   * Insert a new node for val after the path in update and rank.
+   * Afterwards, update and rank hold the path to the new node's
+   * successor, so they can be used to continue to larger values.
    *
-   * @throws IndexOutOfBoundsException
-   *   if the index is out of range (index < 0 || index >= length)
+   * @return the new node
    */
-  public T get(int i)
+  Node<T> insert(T val, Node<T>[] update, int[] rank)
   {
-    if ((i < 0) || (i > this.size))
+    int i;
+    int newLevel = randomLevel();
+    if (newLevel > this.currentLevel)
       {
-        throw new IndexOutOfBoundsException();
-      }//check bounds
+        for (i = this.currentLevel + 1; i <= newLevel; i++)
+          {
+            update[i] = this.head;
+            rank[i] = 0;
+            // the unused head pointers skip every node to the tail
+            this.head.widths[i] = this.size + 1;
+          }//for
+        this.currentLevel = newLevel;
+      }//if new level greater than current list level
 
-    Node<T> current = this.head.forwardPointers[0];
-    int counter = 0;
-    while (counter < i)
+    Node<T> node = newNode(newLevel, val);
+    node.backward = update[0];
+    update[0].forwardPointers[0].backward = node;
+    int predecessor = rank[0];
+    for (i = 0; i <= newLevel; i++)
       {
-        current = current.forwardPointers[0];
-        counter++;
-      }//while
-    return current.val;
-  } // get(int)
-
+        // predecessor - rank[i] is the distance from update[i] to the
+        // new node's predecessor
+        int before = predecessor - rank[i];
+        node.forwardPointers[i] = update[i].forwardPointers[i];
+        node.widths[i] = update[i].widths[i] - before;
+        relink(update[i], i, node);
+        update[i].widths[i] = before + 1;
+        update[i] = node;
+        rank[i] = predecessor + 1;
+      }//for
+    //the higher pointers now skip one more node
+    for (i = newLevel + 1; i <= this.currentLevel; i++)
+      {
+        update[i].widths[i]++;
+      }//for
+    this.mods++;
+    this.size++;
+    return node;
+  }// insert(T, Node<T>[], int[])
+
+  /**
+   * Unlink node, whose predecessors at each level are in update.
+   * Afterwards, update still holds the predecessors of node's
+   * successor.
+   */
+  void unlink(Node<T> node, Node<T>[] update)
+  {
+    node.forwardPointers[0].backward = node.backward;
+    for (int i = 0; i <= this.currentLevel; i++)
+      {
+        if (update[i].forwardPointers[i] == node)
+          {
+            update[i].widths[i] += node.widths[i] - node.count;
+            relink(update[i], i, node.forwardPointers[i]);
+          }//if the pointer leads to node
+        else
+          {
+            update[i].widths[i] -= node.count;
+          }//else the pointer skips over node
+      }//for
+
+    while (this.currentLevel > 0
+           && this.head.forwardPointers[this.currentLevel] == this.tail)
+      {
+        this.currentLevel--;
+      }//while
+    this.mods++;
+    this.size -= node.count;
+    recycle(node);
+  }// unlink(Node<T>, Node<T>[])
+
+  /**
+   * Add delta to the count of node, whose predecessors at each level
+   * are in update.  Every pointer on the path leads to or skips over
+   * node, so each of their widths changes by delta as well.
+   *
+   * @pre node.count + delta > 0
+   */
+  void recount(Node<T> node, Node<T>[] update, int delta)
+  {
+    for (int i = 0; i <= this.currentLevel; i++)
+      {
+        update[i].widths[i] += delta;
+      }//for
+    node.count += delta;
+    this.size += delta;
+    this.mods++;
+  }// recount(Node<T>, Node<T>[], int)
+
+  /**
+   * Remove one copy of the value in node, whose predecessors at each
+   * level are in update.  If that was the last copy, unlink node.
+   */
+  void drop(Node<T> node, Node<T>[] update)
+  {
+    if (node.count > 1)
+      {
+        recount(node, update, -1);
+      }//if other copies remain
+    else
+      {
+        unlink(node, update);
+      }//else node goes
+  }// drop(Node<T>, Node<T>[])
+
+  /**
+   * Get a node for val at the given level, reusing a removed node if
+   * one is available.
+   */
+  Node<T> newNode(int level, T val)
+  {
+    Node<T> node = this.freeNodes[level];
+    if (node == null)
+      {
+        return makeNode(level, val);
+      }//if there is nothing to reuse
+    this.freeNodes[level] = node.forwardPointers[0];
+    this.freeCounts[level]--;
+    node.val = val;
+    node.count = 1;
+    return node;
+  }// newNode(int, T)
+
+  /**
+   * Find the node that holds a level-0 position (1 for the first value,
+   * size for the last), skipping along the widths from the top down.
+   * A node with a count of c holds c positions.
+   *
+   * @pre 0 < position <= size
+   */
+  Node<T> nodeAt(int position)
+  {
+    Node<T> current = this.head;
+    int passed = 0;
+    for (int level = this.currentLevel; level >= 0; level--)
+      {
+        while (passed + current.widths[level] < position)
+          {
+            passed += current.widths[level];
+            current = current.forwardPointers[level];
+          }//while
+      }//for
+    // current is the last node that ends before position
+    return current.forwardPointers[0];
+  }// nodeAt(int)
+
+  /**
+   * Allocate a node for val at the given level.  Subclasses that keep
+   * more in each node override this to make their own kind of node.
+   */
+  Node<T> makeNode(int level, T val)
+  {
+    return new Node<T>(level, val);
+  }// makeNode(int, T)
+
+  /**
+   * Point node's forward pointer at level i to next.  If a snapshot
+   * may still need the old level-0 link, keep it in node's history.
+   */
+  void relink(Node<T> node, int i, Node<T> next)
+  {
+    if ((i == 0) && (node.forwardPointers[0] != next))
+      {
+        if (snapshotting())
+          {
+            Link<Node<T>> history = trim(node.history);
+            if ((history == null) || (history.stamp != this.version))
+              {
+                // The first change this version, so the old link is the
+                // one that the newest snapshot sees
+                history = new Link<Node<T>>(this.version,
+                                            node.forwardPointers[0], history);
+              }//if the old link is not yet kept
+            node.history = history;
+          }//if any snapshots are open
+        else
+          {
+            node.history = null;
+          }//else no one needs the old links
+      }//if a level-0 link changes
+    node.forwardPointers[i] = next;
+  }// relink(Node<T>, int, Node<T>)
+
+  /**
+   * Keep a removed node for reuse, if there is room for it.  We keep
+   * none while snapshots are open, since they may still visit it.
+   */
+  void recycle(Node<T> node)
+  {
+    int level = node.forwardPointers.length - 1;
+    if ((this.freeCounts[level] >= this.recycleLimit) || snapshotting())
+      {
+        return;
+      }//if we have enough nodes at this level
+    // Drop the value and links, so that they can be collected
+    node.val = null;
+    node.history = null;
+    node.backward = null;
+    for (int i = 1; i <= level; i++)
+      {
+        node.forwardPointers[i] = null;
+      }//for
+    node.forwardPointers[0] = this.freeNodes[level];
+    this.freeNodes[level] = node;
+    this.freeCounts[level]++;
+  }// recycle(Node<T>)
+
+  /**
+   * Copy the non-null values of vals into an array and sort it.
+   */
+  @SuppressWarnings("unchecked")
+  T[] sortedBatch(Iterable<T> vals)
+  {
+    ArrayList<T> batch = new ArrayList<T>();
+    for (T val : vals)
+      {
+        if (val != null)
+          batch.add(val);
+      }//for
+    T[] result = (T[]) batch.toArray(new Comparable[batch.size()]);
+    Arrays.sort(result);
+    return result;
+  }// sortedBatch(Iterable<T>)
+
+  // +-----------------------+-------------------------------------------
+  // | Methods from Iterable |
+  // +-----------------------+
+
+  /**
+   * Return an iterator that iterates the values of the list from
+   * smallest to largest.  As it goes, the iterator remembers the last
+   * node it passed at each level, so its remove method can unlink the
+   * current node without searching for it.  A scan that removes as it
+   * goes therefore takes O(n) steps in all.
+   */
+  public Iterator<T> iterator()
+  {
+    return iteratorAfter(newPredecessors());
+  } // iterator()
+
+  /**
+   * Return an iterator over the values that are not smaller than lower.
+   * The iterator starts from the path to lower, which we find in
+   * O(log n) steps, rather than from the head.
+   */
+  public Iterator<T> iteratorFrom(T lower)
+  {
+    Node<T>[] predecessors = newPredecessors();
+    findPath(lower, predecessors, new int[this.MAX_LEVEL]);
+    return iteratorAfter(predecessors);
+  } // iteratorFrom(T)
+
+  /**
+   * Make an array of nodes that starts out holding the head at every
+   * level.
+   */
+  @SuppressWarnings("unchecked")
+  Node<T>[] newPredecessors()
+  {
+    Node<T>[] result = new Node[this.MAX_LEVEL];
+    Arrays.fill(result, this.head);
+    return result;
+  }// newPredecessors()
+
+  /**
+   * Return an iterator that starts after predecessors[0], where
+   * predecessors holds the last node at or before predecessors[0] at
+   * each level.
+   */
+  Iterator<T> iteratorAfter(final Node<T>[] start)
+  {
+    return new Iterator<T>()
+      {
+
+        //Fields 
+        Node<T> cursor = start[0];
+        //the number of copies of cursor's value we have returned
+        int seen = start[0].count;
+        //the node before cursor
+        Node<T> previous = start[0];
+        //whether there is a value to remove
+        boolean removable = false;
+        //the last node before cursor at each level
+        Node<T>[] predecessors = start;
+        int mods = SkipList.this.mods;
+
+        /**
+         * Checks if the list has been updated since <code>this</code> Iterator
+         * was modified
+         */
+
+        void failFast()
+        {
+          if (this.mods != SkipList.this.mods)
+            throw new ConcurrentModificationException();
+        }//failFast()
+
+        @Override
+        public boolean hasNext()
+        {
+          failFast();
+          return (this.seen < this.cursor.count)
+                 || (this.cursor.forwardPointers[0].val != null);
+        }//hasNext()
+
+        @Override
+        public T next()
+        {
+          failFast();
+          //check if there is actually a next value
+          if (!this.hasNext())
+            {
+              throw new NoSuchElementException();
+            }//if no next value
+          this.removable = true;
+          if (this.seen < this.cursor.count)
+            {
+              this.seen++;
+              return this.cursor.val;
+            }//if cursor stands for more copies
+          //cursor is now the last node before its successor at each of
+          //its levels
+          if (this.cursor != SkipList.this.head)
+            {
+              for (int i = 0; i < this.cursor.forwardPointers.length; i++)
+                {
+                  this.predecessors[i] = this.cursor;
+                }//for
+            }//if we have passed a node
+          this.previous = this.cursor;
+          this.cursor = this.cursor.forwardPointers[0];
+          this.seen = 1;
+          return this.cursor.val;
+
+        }//next()
+
+        @Override
+        public void remove()
+        {
+          failFast();
+          if (!this.removable)
+            {
+              throw new IllegalStateException();
+            }//if there is nothing to remove
+          this.removable = false;
+          if (this.cursor.count > 1)
+            {
+              // predecessors holds the path to cursor
+              SkipList.this.recount(this.cursor, this.predecessors, -1);
+              this.mods = SkipList.this.mods;
+              this.seen--;
+              return;
+            }//if we only remove one copy
+          // unlink leaves predecessors holding the predecessors of the
+          // removed node's successor, which is where we go next
+          SkipList.this.unlink(this.cursor, this.predecessors);
+          this.mods = SkipList.this.mods;
+          // move to the position right before the current cur, since the
+          // removed node may be recycled
+          this.cursor = this.previous;
+          this.seen = this.previous.count;
+        }//remove() 
+      };
+  } // iteratorAfter(Node<T>[])
+
+  /**
+   * Return a spliterator over the values of the list, from smallest to
+   * largest.  A spliterator splits at the middle of its range, which it
+   * finds by skipping along the widths from the top of the list, so
+   * splitting costs O(log n) and gives halves of the same size.  Every
+   * piece knows its exact size.  Like the iterator, a spliterator fails
+   * fast if the list changes once it has started.
+   */
+  public Spliterator<T> spliterator()
+  {
+    return new Pieces(null, 0, 1, -1);
+  } // spliterator()
+
+  /**
+   * Return an iterator that visits the values of the list from largest
+   * to smallest, following the backward links.
+   */
+  public Iterator<T> descendingIterator()
+  {
+    return descendingFrom(this.tail.backward);
+  } // descendingIterator()
+
+  /**
+   * Return an iterator that visits the values that are at most upper,
+   * from largest to smallest.  Finding where to start takes O(log n)
+   * steps, as it does for iteratorFrom.
+   */
+  public Iterator<T> descendingIteratorFrom(T upper)
+  {
+    Node<T> start = findPath(upper, this.path, this.pathRank);
+    if (start.val == null || start.val.compareTo(upper) != 0)
+      {
+        start = this.path[0];
+      }//if upper is not there
+    return descendingFrom(start);
+  } // descendingIteratorFrom(T)
+
+  /**
+   * Return an iterator that steps backward from start to the front of
+   * the list.  Since we keep no predecessors going backward, its remove
+   * method searches for the node it removes, in O(log n) steps.
+   */
+  Iterator<T> descendingFrom(final Node<T> start)
+  {
+    return new Iterator<T>()
+      {
+        //the next node to visit (the head when we are done), the
+        //number of copies of its value still to return, and the node
+        //we visited last (null when there is nothing to remove)
+        Node<T> cursor = start;
+        int left = start.count;
+        Node<T> visited = null;
+        int mods = SkipList.this.mods;
+
+        void failFast()
+        {
+          if (this.mods != SkipList.this.mods)
+            throw new ConcurrentModificationException();
+        }//failFast()
+
+        @Override
+        public boolean hasNext()
+        {
+          failFast();
+          return this.cursor != SkipList.this.head;
+        }//hasNext()
+
+        @Override
+        public T next()
+        {
+          if (!this.hasNext())
+            {
+              throw new NoSuchElementException();
+            }//if no next value
+          this.visited = this.cursor;
+          if (--this.left == 0)
+            {
+              this.cursor = this.cursor.backward;
+              this.left = this.cursor.count;
+            }//if we have returned every copy
+          return this.visited.val;
+        }//next()
+
+        @Override
+        public void remove()
+        {
+          failFast();
+          if (this.visited == null)
+            {
+              throw new IllegalStateException();
+            }//if there is nothing to remove
+          SkipList.this.findPath(this.visited.val, SkipList.this.path,
+                                 SkipList.this.pathRank);
+          SkipList.this.drop(this.visited, SkipList.this.path);
+          this.mods = SkipList.this.mods;
+          this.visited = null;
+        }//remove()
+      };
+  } // descendingFrom(Node<T>)
+
+  // +------------------------+------------------------------------------
+  // | Methods from SimpleSet |
+  // +------------------------+
+
+  /**
+   * Add a value to the set.  A counting list counts one more copy of
+   * val if it is already there.
+   *
+   * @post contains(val)
+   * @post For all lav != val, if contains(lav) held before the call
+   *   to add, contains(lav) continues to hold.
+   */
+  public void add(T val)
+  {
+    Node<T> active;
+
+    //assert if val is null
+    if (val == null)
+      {
+        return;
+      }//if
+
+    //find and record all the updates
+    if (this.fingerOn)
+      {
+        active = fingerPath(val);
+      }//if we can start from the finger
+    else
+      {
+        active = findPath(val, this.path, this.pathRank);
+      }//else start from the head
+
+    if (active.val != null && active.val.compareTo(val) == 0)
+      {
+        if (this.counting)
+          {
+            recount(active, this.path, 1);
+            this.fingerMods = this.mods;
+          }//if we count another copy
+        return;
+      }//if current val equal to val
+
+    insert(val, this.path, this.pathRank);
+    this.fingerMods = this.mods;
+  } // add(T val)
+
+  /**
+   * Determine if the set contains a particular value.
+   * @param searchVal the value to search by
+   */
+  public boolean contains(T searchVal)
+  {
+    Node<T> active = this.head; //point active pointer to the head
+    int i;
+
+    if (this.fingerOn)
+      {
+        active = fingerPath(searchVal);
+        return (active.val != null) && (active.val.compareTo(searchVal) == 0);
+      }//if we can start from the finger
+
+    for (i = this.currentLevel; i >= 0; i--)
+      {
+        while ((active.forwardPointers[i].val != null)
+               && active.forwardPointers[i].val.compareTo(searchVal) < 0)
+          {
+            active = active.forwardPointers[i];
+          }//while
+      }//for
+
+    //check to see if there is a next 
+    if (active.forwardPointers[0].val == null)
+      {
+        return false;
+      }//if
+    active = active.forwardPointers[0];
+    return (active.val.compareTo(searchVal) == 0);
+  } // contains(T)
+
+  /**
+   * Remove an element from the set.  A counting list removes just one
+   * copy of val, so the postconditions only hold for the last copy.
+   *
+   * @post !contains(val)
+   * @post For all lav != val, if contains(lav) held before the call
+   *   to remove, contains(lav) continues to hold.
+   */
+  public void remove(T val)
+  {
+    Node<T> active;
+
+    if (val == null)
+      {
+        return;
+      }// if the argument passed in is a null object
+
+    //find and record update array
+    if (this.fingerOn)
+      {
+        active = fingerPath(val);
+      }//if we can start from the finger
+    else
+      {
+        active = findPath(val, this.path, this.pathRank);
+      }//else start from the head
+
+    if (active.val != null && active.val.compareTo(val) == 0)
+      {
+        drop(active, this.path);
+        this.fingerMods = this.mods;
+      }//if
+  } // remove(T)
+
+  // +----------------+--------------------------------------------------
+  // | Finger Searches |
+  // +----------------+
+
+  /**
+   * Turn finger searches on or off.  With finger searches on, contains,
+   * add and remove remember the path of each search, and start the
+   * next search from the lowest level of that path that still brackets
+   * the new value.  When successive values are close together, each
+   * search then costs O(log d), where d is the distance from the
+   * previous value, rather than O(log n).
+   */
+  public void setFinger(boolean on)
+  {
+    if (on && !this.fingerOn)
+      {
+        // Force the first search to start from the head
+        this.fingerMods = this.mods - 1;
+      }//if turning finger searches on
+    this.fingerOn = on;
+  }// setFinger(boolean)
+
+  /**
+   * Determine the number of finger searches made so far.
+   */
+  public long fingerSearches()
+  {
+    return this.fingerSearches;
+  }// fingerSearches()
+
+  /**
+   * Determine how many of the finger searches made so far started
+   * below the top level, rather than from the head.
+   */
+  public long fingerHits()
+  {
+    return this.fingerHits;
+  }// fingerHits()
+
+  // +---------------+---------------------------------------------------
+  // | Node Recycling |
+  // +---------------+
+
+  /**
+   * Keep up to limit removed nodes of each level for reuse by later
+   * additions, so that a steady mix of adds and removes allocates
+   * nothing.  A limit of 0 (the default) turns recycling off.
+   */
+  public void setRecycling(int limit)
+  {
+    this.recycleLimit = limit;
+    for (int level = 0; level < this.MAX_LEVEL; level++)
+      {
+        // Drop any nodes beyond the new limit
+        while (this.freeCounts[level] > limit)
+          {
+            this.freeNodes[level] = this.freeNodes[level].forwardPointers[0];
+            this.freeCounts[level]--;
+          }//while
+      }//for
+  }// setRecycling(int)
+
+  // +----------+--------------------------------------------------------
+  // | Counting |
+  // +----------+
+
+  /**
+   * Turn counting on or off.  A counting list is a multiset: adding a
+   * value that is already there counts another copy of it, and
+   * removing the value takes away one copy.  The copies share one node
+   * that holds their count, and the widths count every copy, so get,
+   * rank and length see each copy while adds and removes still take
+   * O(log n) steps.  Iterators return each value once per copy.
+   *
+   * @throws IllegalStateException
+   *   if the list is not empty, or has open snapshots.
+   */
+  public void setCounting(boolean on)
+  {
+    if ((this.size != 0) || snapshotting())
+      {
+        throw new IllegalStateException("can only change an empty list");
+      }//if the list is in use
+    this.counting = on;
+  }// setCounting(boolean)
+
+  /**
+   * Determine how many copies of val the list holds.
+   */
+  public int count(T val)
+  {
+    if (val == null)
+      {
+        return 0;
+      }//if val is null
+    // Leave the shared path alone, since we may be read optimistically
+    Node<T> active = lastBefore(val).forwardPointers[0];
+    return ((active.val != null) && (active.val.compareTo(val) == 0))
+        ? active.count : 0;
+  }// count(T)
+
+  // +-----------+-------------------------------------------------------
+  // | Snapshots |
+  // +-----------+
+
+  /**
+   * Point-in-time views of a skip list.  A snapshot sees the values
+   * the list held when the snapshot was taken, however the list has
+   * changed since.  Taking one copies nothing.  Instead, while any
+   * snapshot is open, each node that gets a new level-0 link keeps its
+   * old one, stamped with the version it was replaced in, and removed
+   * nodes are not recycled.  A snapshot walks the bottom of the list,
+   * following at each node the link that was current in its version.
+   *
+   * Snapshots should be closed when they are no longer needed, so that
+   * the list can stop keeping old links.
+   *
+   * Snapshots are single-threaded, like the list itself.  The links and
+   * their history are plain fields, so a snapshot read from one thread
+   * while another thread updates the list may see links half-made or
+   * already trimmed.  What a snapshot offers is a stable view that a
+   * thread can scan while it also updates the list, without the scan
+   * failing fast.  It does not let readers on other threads run
+   * alongside writers; wrap the list in a StampedSortedList for that.
+   */
+  public class Snapshot
+      implements Iterable<T>, AutoCloseable
+  {
+    //the version the snapshot sees
+    final int version;
+    //the number of values in that version
+    final int size;
+    //whether the snapshot is still open
+    boolean open;
+
+    Snapshot(int version, int size)
+    {
+      this.version = version;
+      this.size = size;
+      this.open = true;
+    }//Snapshot(int, int)
+
+    /**
+     * Find the node that followed node at level 0 in our version.
+     */
+    Node<T> next(Node<T> node)
+    {
+      Node<T> next = node.forwardPointers[0];
+      for (Link<Node<T>> link = node.history;
+           (link != null) && (link.stamp > this.version);
+           link = link.older)
+        {
+          next = link.next;
+        }//for
+      return next;
+    }//next(Node<T>)
+
+    /**
+     * Return an iterator over the values in the snapshot, from smallest
+     * to largest.  The iterator does not support remove.
+     *
+     * @throws IllegalStateException
+     *   if the snapshot has been closed.
+     */
+    @Override
+    public Iterator<T> iterator()
+    {
+      checkOpen();
+      return new Iterator<T>()
+        {
+          Node<T> cursor = Snapshot.this.next(SkipList.this.head);
+
+          @Override
+          public boolean hasNext()
+          {
+            checkOpen();
+            return this.cursor != SkipList.this.tail;
+          }//hasNext()
+
+          @Override
+          public T next()
+          {
+            if (!this.hasNext())
+              {
+                throw new NoSuchElementException();
+              }//if no next value
+            T val = this.cursor.val;
+            this.cursor = Snapshot.this.next(this.cursor);
+            return val;
+          }//next()
+        };
+    }//iterator()
+
+    /**
+     * Determine the number of values in the snapshot.
+     */
+    public int length()
+    {
+      return this.size;
+    }//length()
+
+    /**
+     * Release the snapshot.  Closing a snapshot twice does nothing.
+     */
+    @Override
+    public void close()
+    {
+      if (this.open)
+        {
+          this.open = false;
+          SkipList.this.snapshots.remove(this.version);
+        }//if still open
+    }//close()
+
+    void checkOpen()
+    {
+      if (!this.open)
+        throw new IllegalStateException("snapshot is closed");
+    }//checkOpen()
+  } // class Snapshot
+
+  /**
+   * Take a snapshot of the list as it is now.  This takes O(log s)
+   * steps for s open snapshots, however long the list.  Updates made
+   * while snapshots are open keep the old links they replace, so they
+   * allocate a little more until every snapshot is closed.
+   *
+   * @throws UnsupportedOperationException
+   *   if the list is counting, since counts are not versioned.
+   */
+  public Snapshot snapshot()
+  {
+    if (this.counting)
+      {
+        throw new UnsupportedOperationException("snapshot of a counting list");
+      }//if counts change in place
+    if (this.snapshots == null)
+      {
+        this.snapshots = new SkipList<Integer>();
+      }//if this is the first snapshot
+    Snapshot result = new Snapshot(this.version, this.size);
+    this.snapshots.add(this.version);
+    // Later changes must be stamped as after the snapshot
+    this.version++;
+    return result;
+  }// snapshot()
+
+  /**
+   * Determine whether any snapshots are open.
+   */
+  boolean snapshotting()
+  {
+    return (this.snapshots != null) && (this.snapshots.length() > 0);
+  }// snapshotting()
+
+  /**
+   * Drop the links from history that no open snapshot needs.  Those
+   * are the ones replaced in or before the version of the oldest open
+   * snapshot.
+   */
+  Link<Node<T>> trim(Link<Node<T>> history)
+  {
+    int oldest = this.snapshots.get(0);
+    if ((history == null) || (history.stamp <= oldest))
+      {
+        return null;
+      }//if nothing in history is needed
+    Link<Node<T>> link = history;
+    while ((link.older != null) && (link.older.stamp > oldest))
+      {
+        link = link.older;
+      }//while
+    link.older = null;
+    return history;
+  }// trim(Link<Node<T>>)
+
+  // +-------------------+-----------------------------------------------
+  // | Batch Operations  |
+  // +-------------------+
+
+  /**
+   * Add all of the values in vals.  The values are sorted first, and
+   * each search starts from the path to the previous value, climbing
+   * only as high as it needs to.  Adding k values therefore costs about
+   * O(k log(n/k)) steps rather than O(k log n).
+   */
+  public void addAll(Iterable<T> vals)
+  {
+    if (this.counting)
+      {
+        for (T val : vals)
+          this.add(val);
+        return;
+      }//if every copy counts
+    T[] batch = sortedBatch(vals);
+    if (batch.length == 0)
+      {
+        return;
+      }//if there is nothing to add
+
+    Node<T>[] update = this.path;
+    int[] rank = this.pathRank;
+    Node<T> active = findPath(batch[0], update, rank);
+    for (int b = 0; b < batch.length; b++)
+      {
+        if (b > 0)
+          {
+            // The path must lead to something smaller than batch[b]
+            if (batch[b].compareTo(batch[b - 1]) == 0)
+              continue;
+            active = findPath(batch[b], update, rank, climb(batch[b], update));
+          }//if we can reuse the previous path
+        if (active.val == null || active.val.compareTo(batch[b]) != 0)
+          {
+            insert(batch[b], update, rank);
+          }//if batch[b] is not yet in the list
+      }//for
+    this.fingerMods = this.mods;
+  }// addAll(Iterable<T>)
+
+  /**
+   * Remove all of the values in vals.  Like addAll, sorts the values
+   * and starts each search from the path to the previous one.
+   */
+  public void removeAll(Iterable<T> vals)
+  {
+    if (this.counting)
+      {
+        for (T val : vals)
+          this.remove(val);
+        return;
+      }//if every copy counts
+    T[] batch = sortedBatch(vals);
+    if (batch.length == 0)
+      {
+        return;
+      }//if there is nothing to remove
+
+    Node<T>[] update = this.path;
+    int[] rank = this.pathRank;
+    Node<T> active = findPath(batch[0], update, rank);
+    for (int b = 0; b < batch.length; b++)
+      {
+        if (b > 0)
+          {
+            // The path must lead to something smaller than batch[b]
+            if (batch[b].compareTo(batch[b - 1]) == 0)
+              continue;
+            active = findPath(batch[b], update, rank, climb(batch[b], update));
+          }//if we can reuse the previous path
+        if (active.val != null && active.val.compareTo(batch[b]) == 0)
+          {
+            unlink(active, update);
+          }//if batch[b] is in the list
+      }//for
+    this.fingerMods = this.mods;
+  }// removeAll(Iterable<T>)
+
+  /**
+   * Remove every value for which filter holds, in one pass along the
+   * bottom of the list.  As we go, we link each node we keep to the
+   * last node we kept at each of its levels, and recompute the widths
+   * from the new positions, much as loadSorted does.  This takes O(n)
+   * steps however many values we remove.
+   *
+   * If filter throws an exception, the values before the one it failed
+   * on are removed and the rest are kept.
+   *
+   * @return true if any values were removed.
+   */
+  public boolean removeIf(Predicate<? super T> filter)
+  {
+    // The last node kept at each level, and its new level-0 position
+    Node<T>[] last = this.path;
+    int[] lastPosition = this.pathRank;
+    Arrays.fill(last, this.head);
+    Arrays.fill(lastPosition, 0);
+    int kept = 0;
+    RuntimeException failure = null;
+
+    Node<T> node = this.head.forwardPointers[0];
+    while (node != this.tail)
+      {
+        Node<T> next = node.forwardPointers[0];
+        boolean drop = false;
+        if (failure == null)
+          {
+            try
+              {
+                drop = filter.test(node.val);
+              }//try
+            catch (RuntimeException e)
+              {
+                failure = e;
+              }//catch
+          }//if the filter has not failed
+        if (drop)
+          {
+            recycle(node);
+          }//if we remove node
+        else
+          {
+            kept += node.count;
+            node.backward = last[0];
+            for (int i = 0; i < node.forwardPointers.length; i++)
+              {
+                relink(last[i], i, node);
+                last[i].widths[i] = kept - lastPosition[i];
+                last[i] = node;
+                lastPosition[i] = kept;
+              }//for
+          }//else we keep node
+        node = next;
+      }//while
+
+    // Close off every level at the tail
+    for (int i = 0; i < this.MAX_LEVEL; i++)
+      {
+        relink(last[i], i, this.tail);
+        last[i].widths[i] = kept + 1 - lastPosition[i];
+      }//for
+    this.tail.backward = last[0];
+    boolean removed = (kept != this.size);
+    this.size = kept;
+    while (this.currentLevel > 0
+           && this.head.forwardPointers[this.currentLevel] == this.tail)
+      {
+        this.currentLevel--;
+      }//while
+    this.mods++;
+
+    if (failure != null)
+      throw failure;
+    return removed;
+  }// removeIf(Predicate<? super T>)
+
+  // +--------------------------+----------------------------------------
+  // | Methods from SemiIndexed |
+  // +--------------------------+
+
+  /**
+   * Get the element at index i.
+   *
+   * @throws IndexOutOfBoundsException
+   *   if the index is out of range (index < 0 || index >= length)
+   */
+  public T get(int i)
+  {
+    if ((i < 0) || (i >= this.size))
+      {
+        throw new IndexOutOfBoundsException();
+      }//check bounds
+
+    // The element at index i sits i + 1 level-0 steps from the head.
+    return nodeAt(i + 1).val;
+  } // get(int)
+
   /**
    * Determine the number of elements in the collection.
    */
@@ -407,4 +1680,136 @@ public class SkipList<T extends Comparable<T>>
     return this.size;
   } // length()
 
+  // +-------------------------+-----------------------------------------
+  // | Methods from SortedList |
+  // +-------------------------+
+
+  /**
+   * Determine the number of elements that are strictly smaller than
+   * val.  Adds up the widths of the pointers followed during the
+   * normal search descent.
+   */
+  public int rank(T val)
+  {
+    Node<T> active = this.head;
+    int position = 0;
+
+    for (int i = this.currentLevel; i >= 0; i--)
+      {
+        while ((active.forwardPointers[i].val != null)
+               && active.forwardPointers[i].val.compareTo(val) < 0)
+          {
+            position += active.widths[i];
+            active = active.forwardPointers[i];
+          }//while
+      }//for
+    // active is the last node smaller than val, at position position
+    return position;
+  } // rank(T)
+
+  /**
+   * Get the smallest value that is at least val.  Like rank, this
+   * descends to the last node before val without touching the shared
+   * search path; the answer is the node after it.
+   *
+   * @return the value, or null if there is none.
+   */
+  public T ceiling(T val)
+  {
+    return lastBefore(val).forwardPointers[0].val;
+  } // ceiling(T)
+
+  /**
+   * Get the smallest value that is larger than val.
+   *
+   * @return the value, or null if there is none.
+   */
+  public T higher(T val)
+  {
+    Node<T> active = lastBefore(val).forwardPointers[0];
+    if (active.val != null && active.val.compareTo(val) == 0)
+      {
+        active = active.forwardPointers[0];
+      }//if val is there
+    return active.val;
+  } // higher(T)
+
+  /**
+   * Get the largest value that is at most val.
+   *
+   * @return the value, or null if there is none.
+   */
+  public T floor(T val)
+  {
+    Node<T> before = lastBefore(val);
+    Node<T> active = before.forwardPointers[0];
+    if (active.val != null && active.val.compareTo(val) == 0)
+      {
+        return active.val;
+      }//if val is there
+    // The head holds null
+    return before.val;
+  } // floor(T)
+
+  /**
+   * Get the largest value that is smaller than val.
+   *
+   * @return the value, or null if there is none.
+   */
+  public T lower(T val)
+  {
+    // The head holds null
+    return lastBefore(val).val;
+  } // lower(T)
+
+  /**
+   * Get the smallest value, which follows the head.
+   *
+   * @throws NoSuchElementException
+   *   if the list is empty.
+   */
+  public T first()
+  {
+    if (this.size == 0)
+      {
+        throw new NoSuchElementException();
+      }//if the list is empty
+    return this.head.forwardPointers[0].val;
+  } // first()
+
+  /**
+   * Get the largest value, which precedes the tail.
+   *
+   * @throws NoSuchElementException
+   *   if the list is empty.
+   */
+  public T last()
+  {
+    if (this.size == 0)
+      {
+        throw new NoSuchElementException();
+      }//if the list is empty
+    return this.tail.backward.val;
+  } // last()
+
+  /**
+   * Remove the smallest value (just one copy, in a counting list).  Its
+   * predecessor at every level is the head, so there is nothing to
+   * search for.
+   *
+   * @return the value, or null if the list is empty.
+   */
+  public T pollFirst()
+  {
+    Node<T> first = this.head.forwardPointers[0];
+    if (first == this.tail)
+      {
+        return null;
+      }//if the list is empty
+    T result = first.val;
+    Arrays.fill(this.path, 0, this.currentLevel + 1, this.head);
+    drop(first, this.path);
+    return result;
+  } // pollFirst()
+
 } // class SkipList<T>
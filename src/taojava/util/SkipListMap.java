@@ -0,0 +1,395 @@
+package taojava.util;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Sorted maps built on skip lists.  The keys live in a SkipList whose
+ * nodes also hold the value for their key, so a mapping costs one node
+ * (not a node plus a key/value pair) and every lookup compares keys
+ * directly.
+ *
+ * Entries returned by the map are its nodes, so setValue on one of them
+ * changes the map.  An entry whose key has since been removed is no
+ * longer part of the map.
+ *
+ * @author Albert Owusu-Asare
+ */
+public class SkipListMap<K extends Comparable<K>, V>
+    implements Iterable<Map.Entry<K, V>>
+{
+  // +--------+----------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  //the keys, in nodes that also hold the values
+  Keys keys;
+
+  // +------------------+------------------------------------------------
+  // | Internal Classes |
+  // +------------------+
+
+  /**
+   * Skip lists whose nodes are entries.
+   */
+  class Keys
+      extends SkipList<K>
+  {
+    /**
+     * Nodes that hold a value as well as a key.
+     */
+    class Entry
+        extends Node<K>
+        implements Map.Entry<K, V>
+    {
+      /**
+       * The value for the key.
+       */
+      V value;
+
+      Entry(int level, K key)
+      {
+        super(level, key);
+      } // Entry(int, K)
+
+      public K getKey()
+      {
+        return this.val;
+      } // getKey()
+
+      public V getValue()
+      {
+        return this.value;
+      } // getValue()
+
+      public V setValue(V value)
+      {
+        V old = this.value;
+        this.value = value;
+        return old;
+      } // setValue(V)
+
+      public boolean equals(Object other)
+      {
+        if (!(other instanceof Map.Entry))
+          return false;
+        Map.Entry<?, ?> entry = (Map.Entry<?, ?>) other;
+        return Objects.equals(this.val, entry.getKey())
+               && Objects.equals(this.value, entry.getValue());
+      } // equals(Object)
+
+      public int hashCode()
+      {
+        return Objects.hashCode(this.val) ^ Objects.hashCode(this.value);
+      } // hashCode()
+
+      public String toString()
+      {
+        return this.val + "=" + this.value;
+      } // toString()
+    } // class Entry
+
+    Keys(int maxLevel, LevelGenerator levels)
+    {
+      super(maxLevel, levels);
+    } // Keys(int, LevelGenerator)
+
+    Node<K> makeNode(int level, K key)
+    {
+      return new Entry(level, key);
+    } // makeNode(int, K)
+
+    @SuppressWarnings("unchecked")
+    void recycle(Node<K> node)
+    {
+      // Let go of the value, even if we keep the node
+      ((Entry) node).value = null;
+      super.recycle(node);
+    } // recycle(Node<K>)
+  } // class Keys
+
+  // +--------------+----------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Constructs a new, empty SkipListMap using the default maximum number
+   * of levels.
+   */
+  public SkipListMap()
+  {
+    this(20);
+  } // SkipListMap()
+
+  /**
+   * Constructs a new, empty SkipListMap using a maximum number of levels.
+   */
+  public SkipListMap(int maxLevel)
+  {
+    this(maxLevel, new XorShiftLevelGenerator());
+  } // SkipListMap(int)
+
+  /**
+   * Constructs a new, empty SkipListMap using a given level generator
+   * and maximum number of levels.
+   */
+  public SkipListMap(int maxLevel, LevelGenerator levels)
+  {
+    this.keys = new Keys(maxLevel, levels);
+  } // SkipListMap(int, LevelGenerator)
+
+  // +-------------------------+-----------------------------------------
+  // | Internal Helper Methods |
+  // +-------------------------+
+
+  /**
+   * Find the first entry whose key is not smaller than key, leaving the
+   * path to it in keys.path.
+   *
+   * @return the entry, or null if every key is smaller.
+   * @throws NullPointerException
+   *   if key is null.
+   */
+  @SuppressWarnings("unchecked")
+  Keys.Entry ceilingNode(K key)
+  {
+    Objects.requireNonNull(key);
+    SkipList<K>.Node<K> node =
+        this.keys.findPath(key, this.keys.path, this.keys.pathRank);
+    return (node == this.keys.tail) ? null : (Keys.Entry) node;
+  } // ceilingNode(K)
+
+  /**
+   * Find the last entry on the path that ceilingNode just found, that
+   * is, the last one whose key is smaller than the key it looked for.
+   *
+   * @return the entry, or null if there is none.
+   */
+  @SuppressWarnings("unchecked")
+  Keys.Entry predecessor()
+  {
+    SkipList<K>.Node<K> node = this.keys.path[0];
+    return (node == this.keys.head) ? null : (Keys.Entry) node;
+  } // predecessor()
+
+  /**
+   * Determine if entry is there and holds key.
+   */
+  static <K extends Comparable<K>> boolean holds(Map.Entry<K, ?> entry,
+                                                 K key)
+  {
+    return (entry != null) && (entry.getKey().compareTo(key) == 0);
+  } // holds(Map.Entry<K, ?>, K)
+
+  // +-----------------------+-------------------------------------------
+  // | Methods from Iterable |
+  // +-----------------------+
+
+  /**
+   * Return an iterator that steps through the entries of the map in
+   * order of their keys.
+   */
+  public Iterator<Map.Entry<K, V>> iterator()
+  {
+    return new Iterator<Map.Entry<K, V>>()
+      {
+        SkipList<K>.Node<K> cursor = SkipListMap.this.keys.head;
+        SkipList<K>.Node<K> previous = SkipListMap.this.keys.head;
+        int mods = SkipListMap.this.keys.mods;
+
+        void failFast()
+        {
+          if (this.mods != SkipListMap.this.keys.mods)
+            throw new ConcurrentModificationException();
+        } // failFast()
+
+        public boolean hasNext()
+        {
+          failFast();
+          return this.cursor.forwardPointers[0] != SkipListMap.this.keys.tail;
+        } // hasNext()
+
+        @SuppressWarnings("unchecked")
+        public Map.Entry<K, V> next()
+        {
+          if (!this.hasNext())
+            {
+              throw new NoSuchElementException();
+            } // if no next entry
+          this.previous = this.cursor;
+          this.cursor = this.cursor.forwardPointers[0];
+          return (Keys.Entry) this.cursor;
+        } // next()
+
+        public void remove()
+        {
+          failFast();
+          if (this.cursor == this.previous)
+            {
+              throw new IllegalStateException();
+            } // if there is nothing to remove
+          SkipListMap.this.keys.remove(this.cursor.val);
+          this.mods = SkipListMap.this.keys.mods;
+          this.cursor = this.previous;
+        } // remove()
+      };
+  } // iterator()
+
+  // +-------------+-----------------------------------------------------
+  // | Map Methods |
+  // +-------------+
+
+  /**
+   * Map key to value, replacing any earlier value for key.
+   *
+   * @return the earlier value, or null if there was none.
+   * @throws NullPointerException
+   *   if key is null.
+   */
+  public V put(K key, V value)
+  {
+    Objects.requireNonNull(key);
+    Keys.Entry entry = ceilingNode(key);
+    if (holds(entry, key))
+      {
+        return entry.setValue(value);
+      } // if key is already there
+    @SuppressWarnings("unchecked")
+    Keys.Entry added =
+        (Keys.Entry) this.keys.insert(key, this.keys.path, this.keys.pathRank);
+    added.value = value;
+    return null;
+  } // put(K, V)
+
+  /**
+   * Get the value for key.
+   *
+   * @return the value, or null if key is not in the map.
+   * @throws NullPointerException
+   *   if key is null.
+   */
+  public V get(K key)
+  {
+    Keys.Entry entry = ceilingNode(key);
+    return holds(entry, key) ? entry.value : null;
+  } // get(K)
+
+  /**
+   * Determine if the map has a value for key.
+   *
+   * @throws NullPointerException
+   *   if key is null.
+   */
+  public boolean containsKey(K key)
+  {
+    Objects.requireNonNull(key);
+    return this.keys.contains(key);
+  } // containsKey(K)
+
+  /**
+   * Change the value for key, if it has one, without otherwise changing
+   * the map.  Since the map keeps its structure, iterators over it
+   * remain valid.
+   *
+   * @return the earlier value, or null if key is not in the map (in
+   *   which case the map is unchanged).
+   * @throws NullPointerException
+   *   if key is null.
+   */
+  public V replace(K key, V value)
+  {
+    Keys.Entry entry = ceilingNode(key);
+    return holds(entry, key) ? entry.setValue(value) : null;
+  } // replace(K, V)
+
+  /**
+   * Remove key and its value from the map.
+   *
+   * @return the value, or null if key was not in the map.
+   * @throws NullPointerException
+   *   if key is null.
+   */
+  public V remove(K key)
+  {
+    Keys.Entry entry = ceilingNode(key);
+    if (!holds(entry, key))
+      {
+        return null;
+      } // if key is not there
+    V value = entry.value;
+    this.keys.unlink(entry, this.keys.path);
+    return value;
+  } // remove(K)
+
+  /**
+   * Determine the number of keys in the map.
+   */
+  public int size()
+  {
+    return this.keys.length();
+  } // size()
+
+  // +--------------------+----------------------------------------------
+  // | Navigation Methods |
+  // +--------------------+
+
+  /**
+   * Get the entry with the smallest key that is at least key.
+   *
+   * @return the entry, or null if there is none.
+   * @throws NullPointerException
+   *   if key is null.
+   */
+  public Map.Entry<K, V> ceilingEntry(K key)
+  {
+    return ceilingNode(key);
+  } // ceilingEntry(K)
+
+  /**
+   * Get the entry with the smallest key that is larger than key.
+   *
+   * @return the entry, or null if there is none.
+   * @throws NullPointerException
+   *   if key is null.
+   */
+  @SuppressWarnings("unchecked")
+  public Map.Entry<K, V> higherEntry(K key)
+  {
+    Keys.Entry entry = ceilingNode(key);
+    if (holds(entry, key))
+      {
+        SkipList<K>.Node<K> next = entry.forwardPointers[0];
+        return (next == this.keys.tail) ? null : (Keys.Entry) next;
+      } // if key is there
+    return entry;
+  } // higherEntry(K)
+
+  /**
+   * Get the entry with the largest key that is at most key.
+   *
+   * @return the entry, or null if there is none.
+   * @throws NullPointerException
+   *   if key is null.
+   */
+  public Map.Entry<K, V> floorEntry(K key)
+  {
+    Keys.Entry entry = ceilingNode(key);
+    return holds(entry, key) ? entry : predecessor();
+  } // floorEntry(K)
+
+  /**
+   * Get the entry with the largest key that is smaller than key.
+   *
+   * @return the entry, or null if there is none.
+   * @throws NullPointerException
+   *   if key is null.
+   */
+  public Map.Entry<K, V> lowerEntry(K key)
+  {
+    ceilingNode(key);
+    return predecessor();
+  } // lowerEntry(K)
+} // class SkipListMap<K, V>
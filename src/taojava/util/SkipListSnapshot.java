@@ -0,0 +1,183 @@
+package taojava.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Write sorted lists to files, and open those files again as sorted
+ * lists without reading them in.
+ *
+ * A snapshot is a small header followed by the values of the list,
+ * smallest first, each in the same number of bytes.  Since the values
+ * are sorted and evenly spaced, the file needs no links at all: we find
+ * a value by binary search and the value at index i by arithmetic, right
+ * in the mapped file.
+ *
+ * The header holds, in big-endian order, the magic number, the format
+ * version, the number of bytes per value, four unused bytes, and the
+ * number of values.
+ *
+ * @author Albert Owusu-Asare
+ */
+public class SkipListSnapshot
+{
+  // +-----------+-------------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The first four bytes of every snapshot ("SKIP").
+   */
+  static final int MAGIC = 0x534B4950;
+
+  /**
+   * The version of the format.
+   */
+  static final int VERSION = 1;
+
+  /**
+   * The number of bytes before the first value.
+   */
+  static final int HEADER = 24;
+
+  /**
+   * The number of bytes we write at a time.
+   */
+  static final int BUFFER_SIZE = 1 << 16;
+
+  // +----------------+--------------------------------------------------
+  // | Static Methods |
+  // +----------------+
+
+  /**
+   * Write the values of slist to file.  slist need not be a SortedList,
+   * but must produce its values in increasing order.  The snapshot is written to a
+   * temporary file next to file, then moved into place, so a crash
+   * part way through leaves any older snapshot alone.  (The old file
+   * may even be open as a MappedSortedList while we replace it.)  Once
+   * write returns, the new snapshot is on disk.
+   *
+   * @return the number of values written.
+   * @throws IOException
+   *   if the file cannot be written, or the values would not fit in
+   *   a snapshot (which is limited to 2 GB).
+   */
+  public static <T extends Comparable<T>> int write(Iterable<T> slist,
+                                                    KeyCodec<T> codec,
+                                                    Path file)
+    throws IOException
+  {
+    int width = codec.width();
+    long max = (Integer.MAX_VALUE - HEADER) / width;
+    Path dir = file.toAbsolutePath().getParent();
+    Path temp = Files.createTempFile(dir, file.getFileName().toString(),
+                                     ".tmp");
+    int count = 0;
+    try
+      {
+        try (FileChannel channel =
+            FileChannel.open(temp, StandardOpenOption.WRITE))
+          {
+            ByteBuffer buf =
+                ByteBuffer.allocate(BUFFER_SIZE - BUFFER_SIZE % width);
+            channel.position(HEADER);
+            for (T val : slist)
+              {
+                if (count == max)
+                  {
+                    throw new IOException("too many values for a snapshot");
+                  }//if the file is full
+                if (buf.position() == buf.capacity())
+                  {
+                    buf.flip();
+                    while (buf.hasRemaining())
+                      channel.write(buf);
+                    buf.clear();
+                  }//if buf is full
+                codec.write(buf, buf.position(), val);
+                buf.position(buf.position() + width);
+                count++;
+              }//for
+            buf.flip();
+            while (buf.hasRemaining())
+              channel.write(buf);
+
+            // Now that we know the count, fill in the header
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            header.putInt(MAGIC).putInt(VERSION).putInt(width).putInt(0)
+                  .putLong(count).flip();
+            channel.position(0);
+            while (header.hasRemaining())
+              channel.write(header);
+            channel.force(true);
+          }//try
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+                   StandardCopyOption.ATOMIC_MOVE);
+        // The rename lives in the directory, so force that too
+        try (FileChannel parent =
+            FileChannel.open(dir, StandardOpenOption.READ))
+          {
+            parent.force(true);
+          }//try
+      }//try
+    finally
+      {
+        Files.deleteIfExists(temp);
+      }//finally
+    return count;
+  } // write(Iterable<T>, KeyCodec<T>, Path)
+
+  /**
+   * Open a snapshot that write made.  The file is mapped read-only, so
+   * opening takes about the same time however large the snapshot is.
+   * Updates to the list are kept in memory until the list is written
+   * again.
+   *
+   * @throws IOException
+   *   if the file cannot be read, is not a snapshot, or holds values
+   *   of a different width than codec expects.
+   */
+  public static <T extends Comparable<T>> MappedSortedList<T> open(Path file,
+                                                                   KeyCodec<T> codec)
+    throws IOException
+  {
+    try (FileChannel channel =
+        FileChannel.open(file, StandardOpenOption.READ))
+      {
+        long length = channel.size();
+        if (length < HEADER)
+          {
+            throw new IOException(file + " is not a snapshot");
+          }//if too short
+        if (length > Integer.MAX_VALUE)
+          {
+            throw new IOException(file + " is too large to map");
+          }//if too long
+        MappedByteBuffer buf =
+            channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+        buf.order(ByteOrder.BIG_ENDIAN);
+        if ((buf.getInt(0) != MAGIC) || (buf.getInt(4) != VERSION))
+          {
+            throw new IOException(file + " is not a snapshot");
+          }//if the header is wrong
+        if (buf.getInt(8) != codec.width())
+          {
+            throw new IOException(file + " holds " + buf.getInt(8)
+                                  + "-byte values, not " + codec.width());
+          }//if the width is wrong
+        long count = buf.getLong(16);
+        if (HEADER + count * codec.width() > length)
+          {
+            throw new IOException(file + " is truncated");
+          }//if the values are not all there
+        return new MappedSortedList<T>(buf, (int) count, codec);
+      }//try
+  } // open(Path, KeyCodec<T>)
+} // class SkipListSnapshot
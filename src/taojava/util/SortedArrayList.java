@@ -2,6 +2,7 @@ package taojava.util;
 
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.function.Predicate;
 
 /**
  * Sorted lists implemented with Java's array lists.  As one
@@ -192,4 +193,59 @@ public class SortedArrayList<T extends Comparable<T>>
   {
     return this.core.size();
   } // length()
+
+  // +-------------------------+-----------------------------------------
+  // | Methods from SortedList |
+  // +-------------------------+
+
+  /**
+   * Determine the number of elements that are strictly smaller than
+   * val.
+   */
+  public int rank(T val)
+  {
+    // findIndex gives either the index of val or the index at which
+    // val belongs, both of which are the number of smaller values.
+    return this.findIndex(val);
+  } // rank(T)
+
+  /**
+   * Return an iterator over the values that are not smaller than lower,
+   * starting at the index that binary search finds for lower.
+   */
+  public Iterator<T> iteratorFrom(T lower)
+  {
+    // Wrap the list iterator so that callers cannot add or set values
+    // out of order.
+    return new Iterator<T>()
+      {
+        // An underlying iterator.
+        Iterator<T> core = SortedArrayList.this.core.listIterator(
+            SortedArrayList.this.findIndex(lower));
+
+        public T next()
+        {
+          return core.next();
+        } // next()
+
+        public boolean hasNext()
+        {
+          return core.hasNext();
+        } // hasNext()
+
+        public void remove()
+        {
+          core.remove();
+        } // remove()
+      }; // new Iterator<T>
+  } // iteratorFrom(T)
+
+  /**
+   * Remove every element for which filter holds.  The array list slides
+   * the elements we keep down over the ones we remove, in one pass.
+   */
+  public boolean removeIf(Predicate<? super T> filter)
+  {
+    return this.core.removeIf(filter);
+  } // removeIf(Predicate<? super T>)
 } // class SortedArrayList<T>
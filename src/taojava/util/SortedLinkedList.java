@@ -3,6 +3,7 @@ package taojava.util;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.ListIterator;
+import java.util.function.Predicate;
 
 /**
  * Sorted lists implemented with Java's linked lists.  As one
@@ -170,4 +171,115 @@ public class SortedLinkedList<T extends Comparable<T>>
   {
     return this.core.size();
   } // length()
+
+  // +-------------------------+-----------------------------------------
+  // | Methods from SortedList |
+  // +-------------------------+
+
+  /**
+   * Determine the number of elements that are strictly smaller than
+   * val.
+   */
+  public int rank(T val)
+  {
+    return this.advanceTo(val).nextIndex();
+  } // rank(T)
+
+  /**
+   * Return an iterator over the values that are not smaller than lower.
+   */
+  public Iterator<T> iteratorFrom(T lower)
+  {
+    // Wrap the list iterator so that callers cannot add or set values
+    // out of order.
+    return new Iterator<T>()
+      {
+        // An underlying iterator.
+        Iterator<T> core = SortedLinkedList.this.advanceTo(lower);
+
+        public T next()
+        {
+          return core.next();
+        } // next()
+
+        public boolean hasNext()
+        {
+          return core.hasNext();
+        } // hasNext()
+
+        public void remove()
+        {
+          core.remove();
+        } // remove()
+      }; // new Iterator<T>
+  } // iteratorFrom(T)
+
+  /**
+   * Get the largest value that is at most val, in one pass.
+   *
+   * @return the value, or null if there is none.
+   */
+  public T floor(T val)
+  {
+    ListIterator<T> it = this.advanceTo(val);
+    if (it.hasNext())
+      {
+        T next = it.next();
+        if (val.compareTo(next) == 0)
+          return next;
+        it.previous();
+      } // if val may be there
+    return it.hasPrevious() ? it.previous() : null;
+  } // floor(T)
+
+  /**
+   * Get the largest value that is smaller than val, in one pass.
+   *
+   * @return the value, or null if there is none.
+   */
+  public T lower(T val)
+  {
+    ListIterator<T> it = this.advanceTo(val);
+    return it.hasPrevious() ? it.previous() : null;
+  } // lower(T)
+
+  /**
+   * Get the smallest value.
+   *
+   * @throws NoSuchElementException
+   *   if the list is empty.
+   */
+  public T first()
+  {
+    return this.core.getFirst();
+  } // first()
+
+  /**
+   * Get the largest value.
+   *
+   * @throws NoSuchElementException
+   *   if the list is empty.
+   */
+  public T last()
+  {
+    return this.core.getLast();
+  } // last()
+
+  /**
+   * Remove the smallest value.
+   *
+   * @return the value, or null if the list is empty.
+   */
+  public T pollFirst()
+  {
+    return this.core.pollFirst();
+  } // pollFirst()
+
+  /**
+   * Remove every element for which filter holds, in one pass.
+   */
+  public boolean removeIf(Predicate<? super T> filter)
+  {
+    return this.core.removeIf(filter);
+  } // removeIf(Predicate<? super T>)
 } // class SortedArrayList<T>
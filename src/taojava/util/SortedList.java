@@ -1,6 +1,9 @@
 package taojava.util;
 
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
 
 /**
  * Sorted lists - dynamic collections that support insertion, removal,
@@ -22,4 +25,218 @@ public interface SortedList<T extends Comparable<T>>
    * list can have more than one copy of the same value.
    */
   public void add(T val);
+
+  /**
+   * Determine the number of elements that are strictly smaller than
+   * val.  If val is in the list, that is its index; otherwise, it is
+   * the index val would have if it were added.
+   *
+   * The default implementation scans the list from the front.
+   * Implementations that can find the position more quickly should
+   * override it.
+   */
+  public default int rank(T val)
+  {
+    int count = 0;
+    for (T lav : this)
+      {
+        if (lav.compareTo(val) >= 0)
+          break;
+        count++;
+      } // for
+    return count;
+  } // rank(T)
+
+  /**
+   * Determine how many copies of val the list holds.
+   *
+   * The default implementation suits lists that keep at most one copy
+   * of each value.  Lists that keep more should override it.
+   */
+  public default int count(T val)
+  {
+    return ((val != null) && this.contains(val)) ? 1 : 0;
+  } // count(T)
+
+  /**
+   * Return an iterator that visits the elements that are not smaller
+   * than lower, from smallest to largest.
+   *
+   * The default implementation skips the smaller elements of a full
+   * iteration.  Implementations that can find where to start more
+   * quickly should override it.
+   */
+  public default Iterator<T> iteratorFrom(T lower)
+  {
+    return new SortedSubList.Bounded<T>(this, this.iterator(), lower, null);
+  } // iteratorFrom(T)
+
+  /**
+   * Get a view of the elements that are at least from and smaller than
+   * to.  A null bound leaves that end of the range open.  Updates to
+   * the list show through the view, and the view accepts updates that
+   * fall in its range.
+   */
+  public default SortedList<T> subList(T from, T to)
+  {
+    return new SortedSubList<T>(this, from, to);
+  } // subList(T, T)
+
+  /**
+   * Get a view of the elements that are smaller than to.
+   */
+  public default SortedList<T> headList(T to)
+  {
+    return this.subList(null, to);
+  } // headList(T)
+
+  /**
+   * Get a view of the elements that are at least from.
+   */
+  public default SortedList<T> tailList(T from)
+  {
+    return this.subList(from, null);
+  } // tailList(T)
+
+  /**
+   * Determine the number of elements that are at least from and smaller
+   * than to, where a null bound leaves that end of the range open.
+   * Takes two calls to rank, so it is as fast as rank is.
+   */
+  public default int countRange(T from, T to)
+  {
+    int low = (from == null) ? 0 : this.rank(from);
+    int high = (to == null) ? this.length() : this.rank(to);
+    return Math.max(0, high - low);
+  } // countRange(T, T)
+
+  /**
+   * Get the smallest element that is at least val.
+   *
+   * @return the element, or null if there is none.
+   */
+  public default T ceiling(T val)
+  {
+    Iterator<T> it = this.iteratorFrom(val);
+    return it.hasNext() ? it.next() : null;
+  } // ceiling(T)
+
+  /**
+   * Get the smallest element that is larger than val.
+   *
+   * @return the element, or null if there is none.
+   */
+  public default T higher(T val)
+  {
+    Iterator<T> it = this.iteratorFrom(val);
+    while (it.hasNext())
+      {
+        T lav = it.next();
+        if (lav.compareTo(val) > 0)
+          return lav;
+      } // while
+    return null;
+  } // higher(T)
+
+  /**
+   * Get the largest element that is at most val.
+   *
+   * @return the element, or null if there is none.
+   */
+  public default T floor(T val)
+  {
+    int rank = this.rank(val);
+    if (rank < this.length())
+      {
+        T lav = this.get(rank);
+        if (lav.compareTo(val) == 0)
+          return lav;
+      } // if val may be there
+    return (rank == 0) ? null : this.get(rank - 1);
+  } // floor(T)
+
+  /**
+   * Get the largest element that is smaller than val.
+   *
+   * @return the element, or null if there is none.
+   */
+  public default T lower(T val)
+  {
+    int rank = this.rank(val);
+    return (rank == 0) ? null : this.get(rank - 1);
+  } // lower(T)
+
+  /**
+   * Get the smallest element.
+   *
+   * @throws NoSuchElementException
+   *   if the list is empty.
+   */
+  public default T first()
+  {
+    return this.iterator().next();
+  } // first()
+
+  /**
+   * Get the largest element.
+   *
+   * @throws NoSuchElementException
+   *   if the list is empty.
+   */
+  public default T last()
+  {
+    int length = this.length();
+    if (length == 0)
+      throw new NoSuchElementException();
+    return this.get(length - 1);
+  } // last()
+
+  /**
+   * Remove the smallest element.
+   *
+   * @return the element, or null if the list is empty.
+   */
+  public default T pollFirst()
+  {
+    Iterator<T> it = this.iterator();
+    if (!it.hasNext())
+      return null;
+    T result = it.next();
+    it.remove();
+    return result;
+  } // pollFirst()
+
+  /**
+   * Remove every element for which filter holds.
+   *
+   * The default implementation removes the elements one at a time
+   * through an iterator.  Implementations that can remove them all in
+   * one pass should override it.
+   *
+   * @return true if any elements were removed.
+   */
+  public default boolean removeIf(Predicate<? super T> filter)
+  {
+    boolean removed = false;
+    Iterator<T> it = this.iterator();
+    while (it.hasNext())
+      {
+        if (filter.test(it.next()))
+          {
+            it.remove();
+            removed = true;
+          } // if
+      } // while
+    return removed;
+  } // removeIf(Predicate<? super T>)
+
+  /**
+   * Remove every element that is not in keep.
+   *
+   * @return true if any elements were removed.
+   */
+  public default boolean retainAll(Collection<?> keep)
+  {
+    return this.removeIf((val) -> !keep.contains(val));
+  } // retainAll(Collection<?>)
 } // interface SortedList<T>
@@ -0,0 +1,263 @@
+package taojava.util;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * Set algebra on sorted lists.  Each operation merges its two inputs
+ * in one pass, in O(n + m) steps, rather than looking up every value of
+ * one list in the other.  When the list we would look values up in is
+ * a skip list much larger than the other list, we walk the smaller
+ * list instead and search forward through the skip list from where the
+ * last search ended, climbing only as high as we need to.  A search
+ * that moves d values forward then costs O(log d), so the whole
+ * operation takes about O(m log(n/m)) steps.
+ *
+ * The results are new skip lists, built with the linear-time bulk load
+ * rather than by repeated adds.  They hold each value once, even if an
+ * input was a counting list.
+ *
+ * @author Albert Owusu-Asare
+ */
+public class SortedLists
+{
+  // +------------------+------------------------------------------------
+  // | Internal Classes |
+  // +------------------+
+
+  /**
+   * The ways we can combine two sorted sequences.
+   */
+  enum Op
+  {
+    UNION, INTERSECTION, DIFFERENCE
+  } // enum Op
+
+  /**
+   * Iterators that merge two increasing sequences.  We keep the
+   * current value of each (null once it runs out) and read ahead to the
+   * next value of the result.  Repeated values, as from a counting
+   * list, are passed over.
+   */
+  static class Merge<T extends Comparable<T>>
+      implements Iterator<T>
+  {
+    //the inputs and their current values
+    Iterator<T> left;
+    Iterator<T> right;
+    T x;
+    T y;
+    //how we combine them
+    Op op;
+    //the next value of the result, or null if there is none
+    T pending;
+
+    Merge(Iterator<T> left, Iterator<T> right, Op op)
+    {
+      this.left = left;
+      this.right = right;
+      this.op = op;
+      this.x = step(left, null);
+      this.y = step(right, null);
+      this.pending = this.fill();
+    }//Merge(Iterator<T>, Iterator<T>, Op)
+
+    /**
+     * Get the next value of it that differs from last, or null if it
+     * runs out first.
+     */
+    static <T extends Comparable<T>> T step(Iterator<T> it, T last)
+    {
+      while (it.hasNext())
+        {
+          T val = it.next();
+          if ((last == null) || (val.compareTo(last) != 0))
+            return val;
+        }//while
+      return null;
+    }//step(Iterator<T>, T)
+
+    /**
+     * Find the next value of the result.
+     */
+    T fill()
+    {
+      while (this.x != null || this.y != null)
+        {
+          int order = (this.x == null) ? 1
+                      : (this.y == null) ? -1 : this.x.compareTo(this.y);
+          T result = (order <= 0) ? this.x : this.y;
+          if (order <= 0)
+            this.x = step(this.left, this.x);
+          if (order >= 0)
+            this.y = step(this.right, this.y);
+          if ((this.op == Op.UNION)
+              || ((this.op == Op.INTERSECTION) && (order == 0))
+              || ((this.op == Op.DIFFERENCE) && (order < 0)))
+            {
+              return result;
+            }//if result belongs in the result
+          if ((this.x == null) && (this.op != Op.UNION))
+            {
+              return null;
+            }//if nothing more can belong
+        }//while
+      return null;
+    }//fill()
+
+    @Override
+    public boolean hasNext()
+    {
+      return this.pending != null;
+    }//hasNext()
+
+    @Override
+    public T next()
+    {
+      if (this.pending == null)
+        {
+          throw new NoSuchElementException();
+        }//if no next value
+      T result = this.pending;
+      this.pending = this.fill();
+      return result;
+    }//next()
+  } // class Merge<T>
+
+  /**
+   * Iterators over the values of an increasing sequence that pass a
+   * filter.
+   */
+  static class Filter<T extends Comparable<T>>
+      implements Iterator<T>
+  {
+    Iterator<T> it;
+    Predicate<T> keep;
+    //the next value that passes, or null if there is none
+    T pending;
+
+    Filter(Iterator<T> it, Predicate<T> keep)
+    {
+      this.it = it;
+      this.keep = keep;
+      this.pending = this.fill();
+    }//Filter(Iterator<T>, Predicate<T>)
+
+    T fill()
+    {
+      while (this.it.hasNext())
+        {
+          T val = this.it.next();
+          if (this.keep.test(val))
+            return val;
+        }//while
+      return null;
+    }//fill()
+
+    @Override
+    public boolean hasNext()
+    {
+      return this.pending != null;
+    }//hasNext()
+
+    @Override
+    public T next()
+    {
+      if (this.pending == null)
+        {
+          throw new NoSuchElementException();
+        }//if no next value
+      T result = this.pending;
+      this.pending = this.fill();
+      return result;
+    }//next()
+  } // class Filter<T>
+
+  // +-------------------------+-----------------------------------------
+  // | Internal Helper Methods |
+  // +-------------------------+
+
+  /**
+   * Determine whether it pays to look the values of small up in large,
+   * rather than merge the two.  That needs large to be a skip list,
+   * and m log n to be smaller than n.
+   */
+  static <T extends Comparable<T>> boolean gallop(SortedList<T> small,
+                                                  SortedList<T> large)
+  {
+    if (!(large instanceof SkipList))
+      {
+        return false;
+      }//if we cannot search forward quickly
+    long m = small.length();
+    long n = large.length();
+    return m * (64 - Long.numberOfLeadingZeros(n)) < n;
+  } // gallop(SortedList<T>, SortedList<T>)
+
+  /**
+   * Make a test of membership in slist for values given in increasing
+   * order.  Each search starts from the path to the previous value, as
+   * the batch operations of SkipList do.
+   */
+  static <T extends Comparable<T>> Predicate<T> member(SkipList<T> slist)
+  {
+    final SkipList<T>.Node<T>[] update = slist.newPredecessors();
+    final int[] rank = new int[slist.MAX_LEVEL];
+    return (val) ->
+      {
+        SkipList<T>.Node<T> active =
+            slist.findPath(val, update, rank, slist.climb(val, update));
+        return (active.val != null) && (active.val.compareTo(val) == 0);
+      };
+  } // member(SkipList<T>)
+
+  // +----------------+--------------------------------------------------
+  // | Static Methods |
+  // +----------------+
+
+  /**
+   * Make a list of the values that are in a, b, or both.
+   */
+  public static <T extends Comparable<T>> SkipList<T> union(SortedList<T> a,
+                                                            SortedList<T> b)
+  {
+    return new SkipList<T>(new Merge<T>(a.iterator(), b.iterator(),
+                                        Op.UNION));
+  } // union(SortedList<T>, SortedList<T>)
+
+  /**
+   * Make a list of the values that are in both a and b.
+   */
+  public static <T extends Comparable<T>> SkipList<T> intersection(SortedList<T> a,
+                                                                   SortedList<T> b)
+  {
+    if (gallop(a, b))
+      {
+        return new SkipList<T>(new Filter<T>(a.iterator(),
+                                             member((SkipList<T>) b)));
+      }//if a is much smaller
+    if (gallop(b, a))
+      {
+        return new SkipList<T>(new Filter<T>(b.iterator(),
+                                             member((SkipList<T>) a)));
+      }//if b is much smaller
+    return new SkipList<T>(new Merge<T>(a.iterator(), b.iterator(),
+                                        Op.INTERSECTION));
+  } // intersection(SortedList<T>, SortedList<T>)
+
+  /**
+   * Make a list of the values that are in a but not in b.
+   */
+  public static <T extends Comparable<T>> SkipList<T> difference(SortedList<T> a,
+                                                                 SortedList<T> b)
+  {
+    if (gallop(a, b))
+      {
+        return new SkipList<T>(new Filter<T>(a.iterator(),
+                                             member((SkipList<T>) b).negate()));
+      }//if a is much smaller
+    return new SkipList<T>(new Merge<T>(a.iterator(), b.iterator(),
+                                        Op.DIFFERENCE));
+  } // difference(SortedList<T>, SortedList<T>)
+} // class SortedLists
@@ -0,0 +1,301 @@
+package taojava.util;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Views of the values of a sorted list that fall in a range.  The
+ * range includes its lower bound and excludes its upper bound; a null
+ * bound leaves that end of the range open.  A view holds no values of
+ * its own, so updates to the list show through the view, and updates
+ * to the view (which must stay in range) go to the list.
+ *
+ * The view does its work with the rank and seek operations of the
+ * underlying list, so it is as fast as they are.  On a skip list,
+ * finding the length of a view, or the value at an index within it,
+ * takes O(log n) steps.
+ *
+ * @author Albert Owusu-Asare
+ */
+class SortedSubList<T extends Comparable<T>>
+    implements SortedList<T>
+{
+  // +--------+----------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The underlying sorted list.
+   */
+  SortedList<T> base;
+
+  /**
+   * The smallest value in range, or null if there is none.
+   */
+  T from;
+
+  /**
+   * The smallest value past the range, or null if there is none.
+   */
+  T to;
+
+  // +------------------+------------------------------------------------
+  // | Internal Classes |
+  // +------------------+
+
+  /**
+   * Iterators that skip the values of another iterator that are smaller
+   * than from, and stop at the first value that is not smaller than to.
+   * To see where to stop, we read one value ahead.  If a value is
+   * removed after we read ahead, we remove it from the list and seek
+   * back to the value we read.
+   */
+  static class Bounded<T extends Comparable<T>>
+      implements Iterator<T>
+  {
+    //the list we iterate, and an iterator over it
+    SortedList<T> base;
+    Iterator<T> it;
+    //the bounds, either of which may be null
+    T from;
+    T to;
+    //the value we read ahead, or null if there is none
+    T pending;
+    //the value next last returned, or null if there is nothing to remove
+    T last;
+
+    Bounded(SortedList<T> base, Iterator<T> it, T from, T to)
+    {
+      this.base = base;
+      this.it = it;
+      this.from = from;
+      this.to = to;
+      this.pending = null;
+      this.last = null;
+    }//Bounded(SortedList<T>, Iterator<T>, T, T)
+
+    @Override
+    public boolean hasNext()
+    {
+      while ((this.pending == null) && this.it.hasNext())
+        {
+          T val = this.it.next();
+          if ((this.from == null) || (val.compareTo(this.from) >= 0))
+            {
+              this.pending = val;
+            }//if val is in range
+        }//while
+      return (this.pending != null)
+             && ((this.to == null) || (this.pending.compareTo(this.to) < 0));
+    }//hasNext()
+
+    @Override
+    public T next()
+    {
+      if (!this.hasNext())
+        {
+          throw new NoSuchElementException();
+        }//if no next value
+      this.last = this.pending;
+      this.pending = null;
+      return this.last;
+    }//next()
+
+    @Override
+    public void remove()
+    {
+      if (this.last == null)
+        {
+          throw new IllegalStateException();
+        }//if there is nothing to remove
+      if (this.pending == null)
+        {
+          this.it.remove();
+        }//if it last returned last
+      else
+        {
+          this.base.remove(this.last);
+          this.it = this.base.iteratorFrom(this.pending);
+          this.pending = null;
+        }//else we have read past last
+      this.last = null;
+    }//remove()
+  } // class Bounded<T>
+
+  // +--------------+----------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a view of the values of base that are at least from and
+   * smaller than to.
+   */
+  SortedSubList(SortedList<T> base, T from, T to)
+  {
+    this.base = base;
+    this.from = from;
+    this.to = to;
+  } // SortedSubList(SortedList<T>, T, T)
+
+  // +-------------------------+-----------------------------------------
+  // | Internal Helper Methods |
+  // +-------------------------+
+
+  /**
+   * Determine if val falls in the range.
+   */
+  boolean inRange(T val)
+  {
+    return ((this.from == null) || (val.compareTo(this.from) >= 0))
+           && ((this.to == null) || (val.compareTo(this.to) < 0));
+  } // inRange(T)
+
+  /**
+   * Determine the index in base of the first value in range.
+   */
+  int low()
+  {
+    return (this.from == null) ? 0 : this.base.rank(this.from);
+  } // low()
+
+  /**
+   * Determine the index in base of the first value past the range.
+   */
+  int high()
+  {
+    return Math.max(this.low(), (this.to == null) ? this.base.length()
+                                                  : this.base.rank(this.to));
+  } // high()
+
+  /**
+   * Pick the larger of two lower bounds, where null is the smallest.
+   */
+  static <T extends Comparable<T>> T larger(T x, T y)
+  {
+    return (x == null) ? y : (y == null) ? x : (x.compareTo(y) >= 0) ? x : y;
+  } // larger(T, T)
+
+  /**
+   * Pick the smaller of two upper bounds, where null is the largest.
+   */
+  static <T extends Comparable<T>> T smaller(T x, T y)
+  {
+    return (x == null) ? y : (y == null) ? x : (x.compareTo(y) <= 0) ? x : y;
+  } // smaller(T, T)
+
+  // +-----------------------+-------------------------------------------
+  // | Methods from Iterable |
+  // +-----------------------+
+
+  /**
+   * Return an iterator that steps through the values in range from
+   * smallest to largest.
+   */
+  public Iterator<T> iterator()
+  {
+    return this.iteratorFrom(this.from);
+  } // iterator()
+
+  // +------------------------+------------------------------------------
+  // | Methods from SimpleSet |
+  // +------------------------+
+
+  /**
+   * Add a value to the list.
+   *
+   * @throws IllegalArgumentException
+   *   if val is out of range.
+   */
+  public void add(T val)
+  {
+    if ((val != null) && !this.inRange(val))
+      {
+        throw new IllegalArgumentException(val + " is out of range");
+      } // if val is out of range
+    this.base.add(val);
+  } // add(T)
+
+  /**
+   * Determine if the view contains val.
+   */
+  public boolean contains(T val)
+  {
+    return (val != null) && this.inRange(val) && this.base.contains(val);
+  } // contains(T)
+
+  /**
+   * Remove val from the list, if it is in range.
+   */
+  public void remove(T val)
+  {
+    if ((val != null) && this.inRange(val))
+      {
+        this.base.remove(val);
+      } // if val is in range
+  } // remove(T)
+
+  // +--------------------------+----------------------------------------
+  // | Methods from SemiIndexed |
+  // +--------------------------+
+
+  /**
+   * Get the value at index i of the view.
+   *
+   * @throws IndexOutOfBoundsException
+   *   if the index is out of range (index < 0 || index >= length)
+   */
+  public T get(int i)
+  {
+    int low = this.low();
+    if ((i < 0) || (i >= this.high() - low))
+      {
+        throw new IndexOutOfBoundsException();
+      } // if i is out of bounds
+    return this.base.get(low + i);
+  } // get(int)
+
+  /**
+   * Determine the number of values in the view.
+   */
+  public int length()
+  {
+    return this.high() - this.low();
+  } // length()
+
+  // +-------------------------+-----------------------------------------
+  // | Methods from SortedList |
+  // +-------------------------+
+
+  /**
+   * Determine the number of values in the view that are smaller than
+   * val.
+   */
+  public int rank(T val)
+  {
+    int low = this.low();
+    int rank = Math.min(Math.max(this.base.rank(val), low), this.high());
+    return rank - low;
+  } // rank(T)
+
+  /**
+   * Return an iterator over the values in the view that are at least
+   * lower.
+   */
+  public Iterator<T> iteratorFrom(T lower)
+  {
+    T start = larger(this.from, lower);
+    Iterator<T> it =
+        (start == null) ? this.base.iterator() : this.base.iteratorFrom(start);
+    return new Bounded<T>(this.base, it, start, this.to);
+  } // iteratorFrom(T)
+
+  /**
+   * Get a view of the values in this view that are at least lower and
+   * smaller than upper.
+   */
+  public SortedList<T> subList(T lower, T upper)
+  {
+    return new SortedSubList<T>(this.base, larger(this.from, lower),
+                                smaller(this.to, upper));
+  } // subList(T, T)
+} // class SortedSubList<T>
@@ -0,0 +1,470 @@
+package taojava.util;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Thread-safe sorted lists that wrap another (not thread-safe) sorted
+ * list.  Updates take an exclusive lock.  Lookups first run without
+ * any lock, using an optimistic stamp, and only take the shared lock
+ * if a writer got in the way.  When writes are rare, readers therefore
+ * almost never block each other or write to shared memory.
+ *
+ * The wrapped list must not be used directly once it has been wrapped.
+ *
+ * @author Albert Owusu-Asare
+ */
+public class StampedSortedList<T extends Comparable<T>>
+    implements SortedList<T>
+{
+  // +--------+----------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The underlying sorted list.
+   */
+  SortedList<T> slist;
+
+  /**
+   * The lock that guards slist.
+   */
+  StampedLock lock;
+
+  /**
+   * Counts the updates made through this wrapper, so that iterators
+   * can fail fast.  Only changed while holding the write lock.
+   */
+  volatile int mods;
+
+  // +--------------+----------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Wrap slist so that it may be shared between threads.
+   */
+  public StampedSortedList(SortedList<T> slist)
+  {
+    this.slist = slist;
+    this.lock = new StampedLock();
+    this.mods = 0;
+  } // StampedSortedList(SortedList<T>)
+
+  // +-------------------------+-----------------------------------------
+  // | Internal Helper Methods |
+  // +-------------------------+
+
+  /**
+   * Note that an optimistic read failed.  A read that overlaps a write
+   * may see the wrapped list half-updated, and so may throw.  We only
+   * report such an exception if the read was not disturbed.
+   */
+  void rethrowIfValid(long stamp, RuntimeException e)
+  {
+    if ((e != null) && this.lock.validate(stamp))
+      throw e;
+  } // rethrowIfValid(long, RuntimeException)
+
+  /**
+   * Determine if the wrapped list contains val, without changing it.  A
+   * skip list with finger searches on records each contains in its
+   * shared path, which other readers and the writer would trample, so
+   * we look in skip lists from the head instead.
+   */
+  boolean lookup(T val)
+  {
+    if (this.slist instanceof SkipList)
+      return ((SkipList<T>) this.slist).containsReadOnly(val);
+    return this.slist.contains(val);
+  } // lookup(T)
+
+  /**
+   * Apply a lookup to the wrapped list, first optimistically and then,
+   * if a writer got in the way, under the read lock.
+   */
+  <R> R read(Function<SortedList<T>, R> lookup)
+  {
+    long stamp = this.lock.tryOptimisticRead();
+    if (stamp != 0)
+      {
+        R result = null;
+        RuntimeException failure = null;
+        try
+          {
+            result = lookup.apply(this.slist);
+          } // try
+        catch (RuntimeException e)
+          {
+            failure = e;
+          } // catch
+        rethrowIfValid(stamp, failure);
+        if (this.lock.validate(stamp))
+          return result;
+      } // if no writer held the lock
+
+    stamp = this.lock.readLock();
+    try
+      {
+        return lookup.apply(this.slist);
+      } // try
+    finally
+      {
+        this.lock.unlockRead(stamp);
+      } // finally
+  } // read(Function<SortedList<T>, R>)
+
+  // +-----------------------+-------------------------------------------
+  // | Methods from Iterable |
+  // +-----------------------+
+
+  /**
+   * Return an iterator that steps through the values of the list from
+   * smallest to largest.  The iterator works from a copy of the list
+   * taken under the read lock, so it never holds the lock between
+   * calls.  Its remove method goes through this list, and it fails fast
+   * if the list is updated in any other way.
+   */
+  public Iterator<T> iterator()
+  {
+    final ArrayList<T> copy = new ArrayList<T>();
+    long stamp = this.lock.readLock();
+    final int expected;
+    try
+      {
+        for (T val : this.slist)
+          copy.add(val);
+        expected = this.mods;
+      } // try
+    finally
+      {
+        this.lock.unlockRead(stamp);
+      } // finally
+
+    return new Iterator<T>()
+      {
+        // The position of the next value in copy
+        int pos = 0;
+        // The number of updates we expect
+        int mods = expected;
+        // Whether we may remove
+        boolean removable = false;
+
+        void failFast()
+        {
+          if (this.mods != StampedSortedList.this.mods)
+            throw new ConcurrentModificationException();
+        } // failFast()
+
+        public boolean hasNext()
+        {
+          failFast();
+          return this.pos < copy.size();
+        } // hasNext()
+
+        public T next()
+        {
+          if (!this.hasNext())
+            throw new NoSuchElementException();
+          this.removable = true;
+          return copy.get(this.pos++);
+        } // next()
+
+        public void remove()
+        {
+          failFast();
+          if (!this.removable)
+            throw new IllegalStateException();
+          long stamp = StampedSortedList.this.lock.writeLock();
+          try
+            {
+              failFast();
+              StampedSortedList.this.slist.remove(copy.get(this.pos - 1));
+              this.mods = ++StampedSortedList.this.mods;
+            } // try
+          finally
+            {
+              StampedSortedList.this.lock.unlockWrite(stamp);
+            } // finally
+          this.removable = false;
+        } // remove()
+      }; // new Iterator<T>
+  } // iterator()
+
+  // +------------------------+------------------------------------------
+  // | Methods from SimpleSet |
+  // +------------------------+
+
+  /**
+   * Add a value to the set.
+   */
+  public void add(T val)
+  {
+    long stamp = this.lock.writeLock();
+    try
+      {
+        this.slist.add(val);
+        this.mods++;
+      } // try
+    finally
+      {
+        this.lock.unlockWrite(stamp);
+      } // finally
+  } // add(T val)
+
+  /**
+   * Determine if the set contains a particular value.
+   */
+  public boolean contains(T val)
+  {
+    long stamp = this.lock.tryOptimisticRead();
+    if (stamp != 0)
+      {
+        boolean result = false;
+        RuntimeException failure = null;
+        try
+          {
+            result = this.lookup(val);
+          } // try
+        catch (RuntimeException e)
+          {
+            failure = e;
+          } // catch
+        rethrowIfValid(stamp, failure);
+        if (this.lock.validate(stamp))
+          return result;
+      } // if no writer held the lock
+
+    stamp = this.lock.readLock();
+    try
+      {
+        return this.lookup(val);
+      } // try
+    finally
+      {
+        this.lock.unlockRead(stamp);
+      } // finally
+  } // contains(T)
+
+  /**
+   * Remove an element from the set.
+   */
+  public void remove(T val)
+  {
+    long stamp = this.lock.writeLock();
+    try
+      {
+        this.slist.remove(val);
+        this.mods++;
+      } // try
+    finally
+      {
+        this.lock.unlockWrite(stamp);
+      } // finally
+  } // remove(T)
+
+  // +--------------------------+----------------------------------------
+  // | Methods from SemiIndexed |
+  // +--------------------------+
+
+  /**
+   * Get the element at index i.
+   *
+   * @throws IndexOutOfBoundsException
+   *   if the index is out of range (index < 0 || index >= length)
+   */
+  public T get(int i)
+  {
+    long stamp = this.lock.tryOptimisticRead();
+    if (stamp != 0)
+      {
+        T result = null;
+        RuntimeException failure = null;
+        try
+          {
+            result = this.slist.get(i);
+          } // try
+        catch (RuntimeException e)
+          {
+            failure = e;
+          } // catch
+        rethrowIfValid(stamp, failure);
+        if (this.lock.validate(stamp))
+          return result;
+      } // if no writer held the lock
+
+    stamp = this.lock.readLock();
+    try
+      {
+        return this.slist.get(i);
+      } // try
+    finally
+      {
+        this.lock.unlockRead(stamp);
+      } // finally
+  } // get(int)
+
+  /**
+   * Determine the number of elements in the collection.
+   */
+  public int length()
+  {
+    long stamp = this.lock.tryOptimisticRead();
+    if (stamp != 0)
+      {
+        int result = this.slist.length();
+        if (this.lock.validate(stamp))
+          return result;
+      } // if no writer held the lock
+
+    stamp = this.lock.readLock();
+    try
+      {
+        return this.slist.length();
+      } // try
+    finally
+      {
+        this.lock.unlockRead(stamp);
+      } // finally
+  } // length()
+
+  // +-------------------------+-----------------------------------------
+  // | Methods from SortedList |
+  // +-------------------------+
+
+  /**
+   * Determine the number of elements that are strictly smaller than
+   * val.
+   */
+  public int rank(T val)
+  {
+    long stamp = this.lock.tryOptimisticRead();
+    if (stamp != 0)
+      {
+        int result = 0;
+        RuntimeException failure = null;
+        try
+          {
+            result = this.slist.rank(val);
+          } // try
+        catch (RuntimeException e)
+          {
+            failure = e;
+          } // catch
+        rethrowIfValid(stamp, failure);
+        if (this.lock.validate(stamp))
+          return result;
+      } // if no writer held the lock
+
+    stamp = this.lock.readLock();
+    try
+      {
+        return this.slist.rank(val);
+      } // try
+    finally
+      {
+        this.lock.unlockRead(stamp);
+      } // finally
+  } // rank(T)
+
+  /**
+   * Determine how many copies of val the list holds.
+   */
+  public int count(T val)
+  {
+    return this.read((slist) -> slist.count(val));
+  } // count(T)
+
+  /**
+   * Get the smallest element that is at least val.
+   */
+  public T ceiling(T val)
+  {
+    return this.read((slist) -> slist.ceiling(val));
+  } // ceiling(T)
+
+  /**
+   * Get the smallest element that is larger than val.
+   */
+  public T higher(T val)
+  {
+    return this.read((slist) -> slist.higher(val));
+  } // higher(T)
+
+  /**
+   * Get the largest element that is at most val.
+   */
+  public T floor(T val)
+  {
+    return this.read((slist) -> slist.floor(val));
+  } // floor(T)
+
+  /**
+   * Get the largest element that is smaller than val.
+   */
+  public T lower(T val)
+  {
+    return this.read((slist) -> slist.lower(val));
+  } // lower(T)
+
+  /**
+   * Get the smallest element.
+   */
+  public T first()
+  {
+    return this.read((slist) -> slist.first());
+  } // first()
+
+  /**
+   * Get the largest element.
+   */
+  public T last()
+  {
+    return this.read((slist) -> slist.last());
+  } // last()
+
+  /**
+   * Remove the smallest element, holding the write lock so that no one
+   * else can take the same one.
+   */
+  public T pollFirst()
+  {
+    long stamp = this.lock.writeLock();
+    try
+      {
+        T result = this.slist.pollFirst();
+        if (result != null)
+          this.mods++;
+        return result;
+      } // try
+    finally
+      {
+        this.lock.unlockWrite(stamp);
+      } // finally
+  } // pollFirst()
+
+  /**
+   * Remove every element for which filter holds, using the wrapped
+   * list's removeIf while holding the write lock.
+   */
+  public boolean removeIf(Predicate<? super T> filter)
+  {
+    long stamp = this.lock.writeLock();
+    try
+      {
+        boolean removed = this.slist.removeIf(filter);
+        if (removed)
+          this.mods++;
+        return removed;
+      } // try
+    finally
+      {
+        this.lock.unlockWrite(stamp);
+      } // finally
+  } // removeIf(Predicate<? super T>)
+} // class StampedSortedList<T>
@@ -0,0 +1,77 @@
+package taojava.util;
+
+/**
+ * When a DurableSortedList forces its log to disk.
+ *
+ * @author Albert Owusu-Asare
+ */
+public class SyncPolicy
+{
+  // +-----------+-------------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * Force the log before every update returns.  Updates that arrive
+   * together from several threads share a single force.
+   */
+  public static final SyncPolicy EVERY_OP = new SyncPolicy(0);
+
+  /**
+   * Never force the log (until the list is closed or checkpointed);
+   * leave it to the operating system.  A crash of the process loses
+   * nothing the system has been given, but a crash of the machine may
+   * lose recent updates.
+   */
+  public static final SyncPolicy NONE = new SyncPolicy(-1);
+
+  // +--------+----------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The number of milliseconds between forces: 0 for every update and
+   * -1 for never.
+   */
+  long millis;
+
+  // +--------------+----------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  SyncPolicy(long millis)
+  {
+    this.millis = millis;
+  } // SyncPolicy(long)
+
+  // +----------------+--------------------------------------------------
+  // | Static Methods |
+  // +----------------+
+
+  /**
+   * Force the log every millis milliseconds, from a background thread.
+   * A crash loses at most the updates of the last interval.
+   */
+  public static SyncPolicy interval(long millis)
+  {
+    if (millis <= 0)
+      {
+        throw new IllegalArgumentException("Invalid interval: " + millis);
+      } // if the interval makes no sense
+    return new SyncPolicy(millis);
+  } // interval(long)
+
+  // +---------+---------------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  public String toString()
+  {
+    if (this.millis == 0)
+      return "every op";
+    else if (this.millis < 0)
+      return "none";
+    else
+      return "every " + this.millis + " ms";
+  } // toString()
+} // class SyncPolicy
@@ -0,0 +1,124 @@
+package taojava.util;
+
+/**
+ * Fast level generators for probabilities that are powers of one half.
+ * Each level costs one xorshift step of a per-thread state, and the
+ * level is read off the number of trailing zero bits of the result:
+ * with probability 1/2^k, every k trailing zeros add one level.
+ * Generators are thread-safe and never contend, since each thread
+ * has its own state.
+ *
+ * @author Albert Owusu-Asare
+ */
+
+/*
+ * Citations:
+ *   George Marsaglia. Xorshift RNGs. Journal of Statistical Software,
+ *   8(14), 2003.
+ */
+public class XorShiftLevelGenerator
+    implements LevelGenerator
+{
+  // +--------+----------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The state of each thread's generator.
+   */
+  static final ThreadLocal<long[]> STATE = new ThreadLocal<long[]>()
+    {
+      protected long[] initialValue()
+      {
+        // Mix the thread and the time so that no two threads start
+        // in the same place.  The state must not be zero.
+        long seed = (Thread.currentThread().getId() * 0x9E3779B97F4A7C15L)
+                    ^ System.nanoTime();
+        return new long[] { (seed == 0) ? 1 : seed };
+      } // initialValue()
+    }; // new ThreadLocal<long[]>
+
+  /**
+   * The number of random bits used per level.
+   */
+  int bits;
+
+  // +--------------+----------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a generator that goes up a level with probability 1/2.
+   */
+  public XorShiftLevelGenerator()
+  {
+    this(0.5);
+  } // XorShiftLevelGenerator()
+
+  /**
+   * Create a generator that goes up a level with the given probability.
+   *
+   * @throws IllegalArgumentException
+   *   if probability is not 1/2, 1/4, 1/8, ...
+   */
+  public XorShiftLevelGenerator(double probability)
+  {
+    this.bits = bitsPerLevel(probability);
+    if (this.bits == 0)
+      throw new IllegalArgumentException("probability " + probability
+                                         + " is not a power of 1/2");
+  } // XorShiftLevelGenerator(double)
+
+  // +-------------------------+-----------------------------------------
+  // | Internal Helper Methods |
+  // +-------------------------+
+
+  /**
+   * Determine k such that probability is 1/2^k, or 0 if there is no
+   * such k.
+   */
+  static int bitsPerLevel(double probability)
+  {
+    for (int k = 1; k < 32; k++)
+      {
+        if (probability == 1.0 / (1L << k))
+          return k;
+      } // for
+    return 0;
+  } // bitsPerLevel(double)
+
+  /**
+   * Advance an xorshift state.
+   */
+  static long step(long x)
+  {
+    x ^= x << 13;
+    x ^= x >>> 7;
+    x ^= x << 17;
+    return x;
+  } // step(long)
+
+  /**
+   * Convert a random word into a level.
+   */
+  static int levelOf(long word, int bits, int maxLevel)
+  {
+    return Math.min(maxLevel - 1, Long.numberOfTrailingZeros(word) / bits);
+  } // levelOf(long, int, int)
+
+  // +-----------------------------+-------------------------------------
+  // | Methods from LevelGenerator |
+  // +-----------------------------+
+
+  public int randomLevel(int maxLevel)
+  {
+    long[] state = STATE.get();
+    state[0] = step(state[0]);
+    return levelOf(state[0], this.bits, maxLevel);
+  } // randomLevel(int)
+
+  public double probability()
+  {
+    return 1.0 / (1L << this.bits);
+  } // probability()
+} // class XorShiftLevelGenerator